@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.util.Collection;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Runs the benchmarks like {@link org.openjdk.jmh.Main}, with the same command line options, always with the GC
+ * profiler. Then reports the throughput of the {@link SourceTreeBenchmark}s in lines per second and their allocations
+ * in bytes per line.
+ */
+public final class BenchmarkMain {
+    private static final String ALLOCATIONS = "gc.alloc.rate.norm";
+
+    private BenchmarkMain() {
+        // no op
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()
+                || cmd.shouldList()
+                || cmd.shouldListWithParams()
+                || cmd.shouldListProfilers()
+                || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cmd);
+        if (!hasGcProfiler(cmd)) {
+            options.addProfiler(GCProfiler.class);
+        }
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        System.out.println();
+        System.out.println(String.format("%-40s %-70s %14s %10s", "Benchmark", "Params", "lines/s", "B/line"));
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            if (params.getMode() != Mode.Throughput || params.getParam("packages") == null) {
+                continue;
+            }
+            long lines = SourceTree.countLines(
+                    Integer.parseInt(params.getParam("packages")),
+                    Integer.parseInt(params.getParam("classes")),
+                    Integer.parseInt(params.getParam("methods")));
+            double opsPerSecond = result.getPrimaryResult().getScore()
+                    * TimeUnit.SECONDS.toNanos(1)
+                    / params.getTimeUnit().toNanos(1);
+            Result<?> allocations = result.getSecondaryResults().get(ALLOCATIONS);
+
+            StringJoiner values = new StringJoiner(" ");
+            for (String key : params.getParamsKeys()) {
+                values.add(key + '=' + params.getParam(key));
+            }
+            String benchmark = params.getBenchmark();
+            System.out.println(String.format(
+                    "%-40s %-70s %14.0f %10s",
+                    benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1),
+                    values,
+                    opsPerSecond * lines,
+                    allocations != null ? String.format("%.1f", allocations.getScore() / lines) : "-"));
+        }
+    }
+
+    private static boolean hasGcProfiler(CommandLineOptions cmd) {
+        for (ProfilerConfig profiler : cmd.getProfilers()) {
+            if (profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.maven.jxr.pacman.FileManager;
+import org.apache.maven.jxr.pacman.PackageManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Highlighting of every line of the tree by the chain of filters of the FILTERS engine, entering it at the given
+ * {@code stage}. Each stage passes its output down to the next ones, so the cost of a single stage is the difference
+ * between its score and the score of the next stage.
+ */
+public class FilterBenchmark extends SourceTreeBenchmark {
+    @Param({
+        "HTML",
+        "ONGOING_MULTI_LINE_COMMENT",
+        "INLINE_COMMENT",
+        "BEGIN_MULTI_LINE_COMMENT",
+        "STRING",
+        "KEYWORD",
+        "URI",
+        "JXR",
+        "IMPORT"
+    })
+    private String stage;
+
+    private JavaCodeTransform.FilterStage filterStage;
+
+    private JavaCodeTransform transform;
+
+    private Path[] files;
+
+    private String[][] lines;
+
+    @Override
+    protected void setup(SourceTree tree) throws IOException {
+        FileManager fileManager = new FileManager();
+        fileManager.setEncoding("UTF-8");
+        PackageManager packageManager = new PackageManager(fileManager);
+        packageManager.process(tree.getRoot());
+        transform = new JavaCodeTransform(packageManager, fileManager);
+        filterStage = JavaCodeTransform.FilterStage.valueOf(stage);
+
+        List<Path> treeFiles = tree.getFiles();
+        files = treeFiles.toArray(new Path[0]);
+        lines = new String[files.length][];
+        for (int i = 0; i < files.length; i++) {
+            lines[i] = Files.readAllLines(files[i], StandardCharsets.UTF_8).toArray(new String[0]);
+            // parse the file now, it is only looked up while filtering
+            fileManager.getFile(files[i]);
+        }
+    }
+
+    @Benchmark
+    public void filter(Blackhole bh) {
+        for (int i = 0; i < files.length; i++) {
+            bh.consume(transform.filter(files[i], filterStage, lines[i]));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.jxr.pacman.ClassType;
+import org.apache.maven.jxr.pacman.FileManager;
+import org.apache.maven.jxr.pacman.JavaFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of one class link in a generated page: {@code computed} runs the code the transform had before links were
+ * cached, which looked up the linking file, counted the dots of its package and built the link for every reference;
+ * {@code cached} gets them from a {@link HrefCache}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HrefBenchmark {
+    private static final int LINKS = 1024;
+
+    /**
+     * Package of the linking file.
+     */
+    @Param({"org.apache.maven.jxr.pacman"})
+    private String packageName;
+
+    /**
+     * Number of distinct classes referenced by the linking file.
+     */
+    @Param({"16"})
+    private int classes;
+
+    private ClassType[] references;
+
+    private HrefCache hrefCache;
+
+    private Path dir;
+
+    /**
+     * The linking file, known to the file manager as it is during a transform.
+     */
+    private Path linkingFile;
+
+    private FileManager fileManager;
+
+    @Setup
+    public void setup() throws IOException {
+        ClassType[] types = new ClassType[classes];
+        for (int i = 0; i < classes; i++) {
+            types[i] = new ClassType("Class" + i, "Class" + i);
+        }
+        references = new ClassType[LINKS];
+        for (int i = 0; i < LINKS; i++) {
+            references[i] = types[i % classes];
+        }
+        hrefCache = new HrefCache();
+
+        dir = Files.createTempDirectory("jxr-bench-href");
+        linkingFile = dir.resolve("Linking.java");
+        Files.write(
+                linkingFile,
+                Arrays.asList("package " + packageName + ";", "class Linking {}"),
+                StandardCharsets.UTF_8);
+        fileManager = new FileManager();
+        fileManager.getFile(linkingFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SourceTree.delete(dir);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINKS)
+    public void computed(Blackhole bh) throws IOException {
+        for (ClassType classType : references) {
+            String href = getHREF(packageName, classType);
+            String find = classType.getName();
+            bh.consume("<a name=\"" + find + "\" href=\"" + href + "\">" + find + "</a>");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINKS)
+    public void cached(Blackhole bh) {
+        String root = hrefCache.getPackageRoot(packageName);
+        for (ClassType classType : references) {
+            bh.consume(hrefCache.getSymbol(root, packageName, classType).getLink());
+        }
+    }
+
+    /*
+     * The link of a class before links were cached
+     */
+    private String getHREF(String dest, ClassType jc) throws IOException {
+        StringBuilder href = new StringBuilder();
+
+        // find out how to go back to the root
+        href.append(getPackageRoot());
+
+        // now find out how to get to the dest package
+        dest = dest.replace(".*", "").replace('.', '/');
+
+        href.append(dest);
+
+        // Now append filename.html
+        href.append('/');
+        href.append(jc.getFilename());
+        href.append(".html");
+        href.append('#');
+        href.append(jc.getName());
+
+        return href.toString();
+    }
+
+    /*
+     * The package root before it was kept per file: the linking file is looked up for every link
+     */
+    private String getPackageRoot() throws IOException {
+        StringBuilder buff = new StringBuilder();
+
+        JavaFile jf = fileManager.getFile(linkingFile);
+
+        int count = getPackageCount(jf.getPackageType().getName());
+
+        for (int i = 0; i < count; ++i) {
+            buff.append("../");
+        }
+
+        return buff.toString();
+    }
+
+    private static int getPackageCount(String packageName) {
+        if (packageName == null) {
+            return 0;
+        }
+
+        int count = 0;
+        int index = 0;
+
+        while (true) {
+            index = packageName.indexOf('.', index);
+
+            if (index == -1) {
+                break;
+            }
+            ++index;
+            ++count;
+        }
+
+        // need to increment this by one
+        ++count;
+
+        return count;
+    }
+}
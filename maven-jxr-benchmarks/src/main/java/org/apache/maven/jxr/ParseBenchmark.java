@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.jxr.pacman.JavaFileImpl;
+import org.apache.maven.jxr.util.JavaSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing of the files of the tree by {@link JavaFileImpl}: {@code streamTokenizer} reads each file with a
+ * {@link java.io.StreamTokenizer}, {@code lexer} lexes each file into a {@link JavaSource} first, as the LEXER engine
+ * does.
+ */
+public class ParseBenchmark extends SourceTreeBenchmark {
+    @Override
+    protected void setup(SourceTree tree) {}
+
+    @Benchmark
+    public void streamTokenizer(Blackhole bh) throws IOException {
+        for (Path file : getTree().getFiles()) {
+            bh.consume(new JavaFileImpl(file, "UTF-8"));
+        }
+    }
+
+    @Benchmark
+    public void lexer(Blackhole bh) throws IOException {
+        for (Path file : getTree().getFiles()) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                bh.consume(new JavaFileImpl(file, "UTF-8", JavaSource.read(reader)));
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A generated tree of Java sources, with packages referencing each other, comments, strings, URIs and keywords in
+ * proportions close to hand-written code. The generated content only depends on the size of the tree, so two trees of
+ * the same size have the same number of lines.
+ */
+final class SourceTree {
+    private final Path root;
+
+    private final List<Path> files;
+
+    private final long lines;
+
+    private final long bytes;
+
+    private SourceTree(Path root, List<Path> files, long lines, long bytes) {
+        this.root = root;
+        this.files = files;
+        this.lines = lines;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Generates a tree of sources in a directory.
+     *
+     * @param root the directory of the tree, created if needed
+     * @param packages number of packages
+     * @param classes number of classes per package
+     * @param methods number of methods per class
+     * @return the generated tree
+     * @throws IOException if the sources could not be written
+     */
+    static SourceTree generate(Path root, int packages, int classes, int methods) throws IOException {
+        List<Path> files = new ArrayList<>();
+        long lines = 0;
+        long bytes = 0;
+        for (int p = 0; p < packages; p++) {
+            Path dir = Files.createDirectories(root.resolve("bench").resolve("p" + p));
+            for (int c = 0; c < classes; c++) {
+                List<String> source = source(p, c, classes, methods);
+                Path file = dir.resolve(typeName(p, c) + ".java");
+                Files.write(file, source, StandardCharsets.UTF_8);
+                files.add(file);
+                lines += source.size();
+                bytes += Files.size(file);
+            }
+        }
+        return new SourceTree(root, Collections.unmodifiableList(files), lines, bytes);
+    }
+
+    /**
+     * Counts the lines of a tree of sources without generating it.
+     *
+     * @param packages number of packages
+     * @param classes number of classes per package
+     * @param methods number of methods per class
+     * @return the number of lines of the tree
+     */
+    static long countLines(int packages, int classes, int methods) {
+        long lines = 0;
+        for (int p = 0; p < packages; p++) {
+            for (int c = 0; c < classes; c++) {
+                lines += source(p, c, classes, methods).size();
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> source(int p, int c, int classes, int methods) {
+        String name = typeName(p, c);
+        String peer = typeName(p, (c + 1) % classes);
+        String parent = p > 0 ? typeName(p - 1, c) : null;
+
+        List<String> source = new ArrayList<>();
+        source.add("/*");
+        source.add(" * Generated source of the JXR benchmarks, see https://maven.apache.org/jxr/ for details.");
+        source.add(" */");
+        source.add("package bench.p" + p + ';');
+        source.add("");
+        if (parent != null) {
+            source.add("import bench.p" + (p - 1) + '.' + parent + ';');
+        }
+        source.add("import java.util.ArrayList;");
+        source.add("import java.util.List;");
+        source.add("");
+        source.add("/**");
+        source.add(" * Class " + c + " of package " + p + ", uses {@link " + peer + "}.");
+        source.add(" * <p>");
+        source.add(" * Bugs go to <a href=\"mailto:dev@maven.apache.org\">the list</a> & nowhere else.");
+        source.add(" */");
+        source.add("public class " + name + (parent != null ? " extends " + parent : "") + " implements Runnable {");
+        source.add("    private static final String NAME = \"" + name + " \\\"quoted\\\" // not a comment\";");
+        source.add("");
+        source.add("    private final List<" + peer + "> items = new ArrayList<>();");
+        for (int m = 0; m < methods; m++) {
+            source.add("");
+            source.add("    // method " + m + ", see http://example.com/p" + p + '/' + name + "#m" + m);
+            source.add("    public int m" + m + '(' + peer + " other, int count) {");
+            source.add("        /* counts the items,");
+            source.add("           up to count */");
+            source.add("        int total = 0;");
+            source.add("        for (int i = 0; i < count; i++) {");
+            source.add("            if (other != null && items.size() > i) {");
+            source.add("                total += i * 31 + NAME.length() + '\\'';");
+            source.add("            }");
+            source.add("        }");
+            source.add("        return total; // done");
+            source.add("    }");
+        }
+        source.add("");
+        source.add("    public void run() {");
+        source.add("        items.add(new " + peer + "());");
+        source.add("    }");
+        source.add("}");
+        return source;
+    }
+
+    private static String typeName(int p, int c) {
+        return "Type" + p + '_' + c;
+    }
+
+    /**
+     * Deletes the tree.
+     *
+     * @throws IOException if a file could not be deleted
+     */
+    void delete() throws IOException {
+        delete(root);
+    }
+
+    /**
+     * Deletes a directory and its content.
+     *
+     * @param dir the directory
+     * @throws IOException if a file could not be deleted
+     */
+    static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    List<Path> getFiles() {
+        return files;
+    }
+
+    long getLines() {
+        return lines;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base of the benchmarks working on a generated {@link SourceTree}. Each operation processes the whole tree once, so
+ * that {@link BenchmarkMain} can report the throughput in lines per second and the allocations in bytes per line. The
+ * size of the tree is set with the {@code packages}, {@code classes} and {@code methods} parameters, EX:
+ * {@code -p packages=50 -p methods=40}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class SourceTreeBenchmark {
+    /**
+     * Number of packages of the tree.
+     */
+    @Param({"10"})
+    private int packages;
+
+    /**
+     * Number of classes per package.
+     */
+    @Param({"10"})
+    private int classes;
+
+    /**
+     * Number of methods per class, each method has 12 lines.
+     */
+    @Param({"10"})
+    private int methods;
+
+    private SourceTree tree;
+
+    @Setup(Level.Trial)
+    public void generateTree() throws IOException {
+        tree = SourceTree.generate(Files.createTempDirectory("jxr-bench-src"), packages, classes, methods);
+        setup(tree);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTree() throws IOException {
+        tearDown();
+        tree.delete();
+    }
+
+    /**
+     * Prepares the benchmark, once the tree is generated.
+     *
+     * @param tree the generated tree
+     * @throws IOException if the tree could not be read
+     */
+    protected abstract void setup(SourceTree tree) throws IOException;
+
+    /**
+     * Cleans up the benchmark, before the tree is deleted.
+     *
+     * @throws IOException if a file could not be deleted
+     */
+    protected void tearDown() throws IOException {}
+
+    protected SourceTree getTree() {
+        return tree;
+    }
+}
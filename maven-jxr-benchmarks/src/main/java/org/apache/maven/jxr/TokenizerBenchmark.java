@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.jxr.util.SimpleWordTokenizer;
+import org.apache.maven.jxr.util.StringEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tokenizing of every line of the tree by {@link SimpleWordTokenizer}: {@code wordHandler} reports the words as
+ * offsets, {@code stringEntries} collects them into a list of {@link StringEntry}.
+ */
+public class TokenizerBenchmark extends SourceTreeBenchmark {
+    private String[] lines;
+
+    private int words;
+
+    private final SimpleWordTokenizer.WordHandler counter = (text, start, end) -> words++;
+
+    @Override
+    protected void setup(SourceTree tree) throws IOException {
+        List<String> all = new ArrayList<>();
+        for (Path file : tree.getFiles()) {
+            all.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+        lines = all.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public int wordHandler() {
+        words = 0;
+        for (String line : lines) {
+            SimpleWordTokenizer.tokenize(line, counter);
+        }
+        return words;
+    }
+
+    @Benchmark
+    public void stringEntries(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(SimpleWordTokenizer.tokenize(line));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.apache.maven.jxr.pacman.FileManager;
+import org.apache.maven.jxr.pacman.PackageManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * End-to-end cross-reference of the tree by {@link JXR#xref}, from the scan of the sources to the written indexes,
+ * with the given {@code engine} and number of {@code threads}.
+ */
+public class XrefBenchmark extends SourceTreeBenchmark {
+    @Param({"FILTERS", "LEXER"})
+    private JavaCodeTransform.Engine engine;
+
+    @Param({"1"})
+    private int threads;
+
+    private Path dest;
+
+    @Override
+    protected void setup(SourceTree tree) throws IOException {
+        dest = Files.createTempDirectory("jxr-bench-xref");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        SourceTree.delete(dest);
+    }
+
+    @Benchmark
+    public void xref() throws IOException, JxrException {
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        JavaCodeTransform codeTransform = new JavaCodeTransform(packageManager, fileManager);
+        codeTransform.setEngine(engine);
+        JXR jxr = new JXR(packageManager, codeTransform);
+        jxr.setDest(dest);
+        jxr.setInputEncoding("UTF-8");
+        jxr.setOutputEncoding("UTF-8");
+        jxr.setThreadCount(threads);
+        jxr.xref(
+                Collections.singletonList(getTree().getRoot().toString()),
+                "templates/jdk8",
+                "Benchmark",
+                "Benchmark",
+                "");
+    }
+}
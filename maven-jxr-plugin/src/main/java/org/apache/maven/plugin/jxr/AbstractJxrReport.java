@@ -20,6 +20,7 @@ package org.apache.maven.plugin.jxr;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -31,6 +32,7 @@ import java.util.Locale;
 import java.util.ResourceBundle;
 
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.jxr.ChangedFiles;
 import org.apache.maven.jxr.JXR;
 import org.apache.maven.jxr.JavaCodeTransform;
 import org.apache.maven.jxr.JxrException;
@@ -43,7 +45,6 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.AbstractMavenReport;
 import org.apache.maven.reporting.MavenReportException;
 import org.codehaus.plexus.languages.java.version.JavaVersion;
-import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -132,6 +133,73 @@ public abstract class AbstractJxrReport extends AbstractMavenReport {
     @Parameter(property = "javadocVersion")
     private String javadocVersion;
 
+    /**
+     * Number of threads used to generate the Xref HTML files. When greater than 1, several source files are
+     * processed concurrently.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "maven.jxr.threads", defaultValue = "1")
+    private int threads;
+
+    /**
+     * Engine used to highlight the source files: {@code FILTERS}, the historical chain of line filters, or
+     * {@code LEXER}, a single pass lexer.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "maven.jxr.engine", defaultValue = "FILTERS")
+    private JavaCodeTransform.Engine engine;
+
+    /**
+     * Whether to only generate again the Xref HTML files whose source file, or the classes it links to, changed since
+     * the previous run, and to remove those whose source file is gone. The state of the previous run is kept in a
+     * manifest in the output directory.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "maven.jxr.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * Whether to only write the Xref HTML files whose content changed, so that the unchanged files keep their
+     * modification time and are not transferred again when the site is deployed.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "maven.jxr.writeIfChanged", defaultValue = "false")
+    private boolean writeIfChanged;
+
+    /**
+     * Whether to list the generated files with their size and SHA-256 checksum in {@code jxr-checksums.txt} in the
+     * output directory, with the files of the previous list that were not generated again, so that only the changes
+     * are deployed.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "maven.jxr.checksums", defaultValue = "false")
+    private boolean checksums;
+
+    /**
+     * A file listing the only source files whose Xref HTML files are generated, one path per line, relative to the
+     * project base directory. All the sources are still parsed so that the generated files link to all the classes.
+     * This is meant for previews of a change.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "maven.jxr.changedFilesList")
+    private File changedFilesList;
+
+    /**
+     * A git revision, for instance {@code origin/master}: only the Xref HTML files of the source files changed since
+     * this revision in the working tree of the project are generated. All the sources are still parsed so that the
+     * generated files link to all the classes. Ignored if {@code changedFilesList} is set.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "maven.jxr.sinceRevision")
+    private String sinceRevision;
+
     /**
      * Version of the Javadoc templates to use.
      */
@@ -208,6 +276,7 @@ public abstract class AbstractJxrReport extends AbstractMavenReport {
         FileManager fileManager = new FileManager();
         PackageManager packageManager = new PackageManager(fileManager);
         JavaCodeTransform codeTransform = new JavaCodeTransform(packageManager, fileManager);
+        codeTransform.setEngine(engine);
 
         JXR jxr = new JXR(packageManager, codeTransform);
         jxr.setDest(outputDirectory.toPath());
@@ -216,6 +285,15 @@ public abstract class AbstractJxrReport extends AbstractMavenReport {
         jxr.setOutputEncoding(getOutputEncoding());
         jxr.setRevision("HEAD");
         jxr.setJavadocLinkDir(constructJavadocLocation());
+        jxr.setThreadCount(threads);
+        jxr.setIncremental(incremental);
+        jxr.setWriteIfChanged(writeIfChanged);
+        jxr.setChecksums(checksums);
+        if (changedFilesList != null) {
+            jxr.setChangedFiles(ChangedFiles.read(changedFilesList.toPath(), project.getBasedir().toPath()));
+        } else if (sinceRevision != null && !sinceRevision.isEmpty()) {
+            jxr.setChangedFiles(ChangedFiles.fromGit(project.getBasedir().toPath(), sinceRevision));
+        }
         // Set include/exclude patterns on the jxr instance
         if (excludes != null && !excludes.isEmpty()) {
             jxr.setExcludes(excludes.toArray(new String[0]));
@@ -224,6 +302,9 @@ public abstract class AbstractJxrReport extends AbstractMavenReport {
             jxr.setIncludes(includes.toArray(new String[0]));
         }
 
+        // the stylesheet is copied with the pages, so that it is listed with them
+        addRequiredResources(jxr);
+
         // avoid winding up using Velocity in two class loaders.
         ClassLoader savedTccl = Thread.currentThread().getContextClassLoader();
         try {
@@ -232,9 +313,6 @@ public abstract class AbstractJxrReport extends AbstractMavenReport {
         } finally {
             Thread.currentThread().setContextClassLoader(savedTccl);
         }
-
-        // and finally copy the stylesheet
-        copyRequiredResources(outputDirectory);
     }
 
     /**
@@ -285,28 +363,29 @@ public abstract class AbstractJxrReport extends AbstractMavenReport {
     }
 
     /**
-     * Copy some required resources (like the stylesheet) to the given target directory
+     * Adds some required resources (like the stylesheet) to the resources copied by the given JXR
      *
-     * @param targetDirectory the directory to copy the resources to
+     * @param jxr the JXR to copy the resources
      */
-    private void copyRequiredResources(File targetDirectory) {
+    private void addRequiredResources(JXR jxr) {
         if (stylesheet != null && !stylesheet.isEmpty()) {
             File stylesheetFile = new File(stylesheet);
-            File targetStylesheetFile = new File(targetDirectory, "stylesheet.css");
 
             try {
-                if (stylesheetFile.isAbsolute()) {
-                    FileUtils.copyFile(stylesheetFile, targetStylesheetFile);
+                URL stylesheetUrl = stylesheetFile.isAbsolute()
+                        ? stylesheetFile.toURI().toURL()
+                        : this.getClass().getClassLoader().getResource(stylesheet);
+                if (stylesheetUrl != null) {
+                    jxr.addResource("stylesheet.css", stylesheetUrl);
                 } else {
-                    URL stylesheetUrl = this.getClass().getClassLoader().getResource(stylesheet);
-                    FileUtils.copyURLToFile(stylesheetUrl, targetStylesheetFile);
+                    getLog().warn("Stylesheet not found: " + stylesheet);
                 }
-            } catch (IOException e) {
+            } catch (MalformedURLException e) {
                 getLog().warn("An error occured while copying the stylesheet to the target directory", e);
             }
         } else {
             if (javadocTemplatesVersion.isAtLeast("1.8")) {
-                copyResources(targetDirectory, "jdk8/", "stylesheet.css");
+                addResources(jxr, "jdk8/", "stylesheet.css");
             } else if (javadocTemplatesVersion.isAtLeast("1.7")) {
                 String[] jdk7Resources = {
                     "stylesheet.css",
@@ -315,34 +394,33 @@ public abstract class AbstractJxrReport extends AbstractMavenReport {
                     "resources/titlebar.gif",
                     "resources/titlebar_end.gif"
                 };
-                copyResources(targetDirectory, "jdk7/", jdk7Resources);
+                addResources(jxr, "jdk7/", jdk7Resources);
             } else if (javadocTemplatesVersion.isAtLeast("1.6")) {
-                copyResources(targetDirectory, "jdk6/", "stylesheet.css");
+                addResources(jxr, "jdk6/", "stylesheet.css");
             } else if (javadocTemplatesVersion.isAtLeast("1.4")) {
-                copyResources(targetDirectory, "jdk4/", "stylesheet.css");
+                addResources(jxr, "jdk4/", "stylesheet.css");
             } else {
                 // Fallback to the original stylesheet
-                copyResources(targetDirectory, "", "stylesheet.css");
+                addResources(jxr, "", "stylesheet.css");
             }
         }
     }
 
     /**
-     * Copy styles and related resources to the given directory
+     * Adds styles and related resources to the resources copied by the given JXR
      *
-     * @param targetDirectory the target directory to copy the resources to
+     * @param jxr the JXR to copy the resources
      * @param sourceDirectory resources subdirectory to copy from
      * @param files names of files to copy
      */
-    private void copyResources(File targetDirectory, String sourceDirectory, String... files) {
-        try {
-            for (String file : files) {
-                URL resourceUrl = this.getClass().getClassLoader().getResource(sourceDirectory + file);
-                File targetResourceFile = new File(targetDirectory, file);
-                FileUtils.copyURLToFile(resourceUrl, targetResourceFile);
+    private void addResources(JXR jxr, String sourceDirectory, String... files) {
+        for (String file : files) {
+            URL resourceUrl = this.getClass().getClassLoader().getResource(sourceDirectory + file);
+            if (resourceUrl != null) {
+                jxr.addResource(file, resourceUrl);
+            } else {
+                getLog().warn("Resource not found: " + sourceDirectory + file);
             }
-        } catch (IOException e) {
-            getLog().warn("An error occured while copying the resource to the target directory", e);
         }
     }
 
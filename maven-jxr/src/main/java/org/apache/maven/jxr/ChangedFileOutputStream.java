@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes a file only if its content changes, so that an unchanged file keeps its modification time. The bytes written
+ * are compared with the existing file as they come; from the first difference on, the new content goes to a temporary
+ * file that replaces the existing one when the stream is closed, provided the content was marked as {@link #complete()
+ * complete}. Otherwise the temporary file is deleted and the existing file is left as it was.
+ */
+class ChangedFileOutputStream extends OutputStream {
+    private final Path file;
+
+    /**
+     * The existing file, while the content written so far is the same.
+     */
+    private InputStream existing;
+
+    private byte[] buffer = new byte[0];
+
+    /**
+     * The number of bytes that are the same as in the existing file.
+     */
+    private long matched;
+
+    private Path tmp;
+
+    /**
+     * The temporary file, once the content differs.
+     */
+    private OutputStream out;
+
+    private boolean complete;
+
+    private boolean closed;
+
+    /**
+     * @param file the file
+     * @throws IOException if the file can't be read
+     */
+    ChangedFileOutputStream(Path file) throws IOException {
+        this.file = file;
+        try {
+            existing = new BufferedInputStream(Files.newInputStream(file));
+        } catch (NoSuchFileException e) {
+            diverge();
+        }
+    }
+
+    /**
+     * Checks if the file was written, which is only known once the stream is closed.
+     *
+     * @return {@code true} if the content of the file changed
+     */
+    boolean isWritten() {
+        return tmp != null;
+    }
+
+    /**
+     * Marks the content as completely written, so that closing the stream may replace the file. A stream closed
+     * without this, e.g. because writing its content failed, leaves the file as it was.
+     */
+    void complete() {
+        complete = true;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (out == null) {
+            if (existing.read() == (b & 0xff)) {
+                matched++;
+                return;
+            }
+            diverge();
+        }
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null) {
+            if (buffer.length < len) {
+                buffer = new byte[Math.max(len, 8192)];
+            }
+            int read = readFully(existing, buffer, len);
+            int same = 0;
+            while (same < read && buffer[same] == b[off + same]) {
+                same++;
+            }
+            matched += same;
+            if (same == len) {
+                return;
+            }
+            diverge();
+            off += same;
+            len -= same;
+        }
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean replaced = false;
+        try {
+            if (complete && out == null && existing.read() != -1) {
+                // the existing file is longer
+                diverge();
+            }
+            if (out != null) {
+                out.close();
+                if (complete) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                    replaced = true;
+                }
+            }
+        } finally {
+            if (existing != null) {
+                existing.close();
+            }
+            if (tmp != null && !replaced) {
+                discard();
+            }
+        }
+    }
+
+    /*
+     * Deletes the temporary file of an incomplete content
+     */
+    private void discard() throws IOException {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // the file is deleted anyway
+            }
+        }
+        Files.deleteIfExists(tmp);
+        tmp = null;
+    }
+
+    /*
+     * Starts writing the temporary file with the bytes that matched so far
+     */
+    private void diverge() throws IOException {
+        if (existing != null) {
+            existing.close();
+        }
+        tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        out = new BufferedOutputStream(Files.newOutputStream(tmp));
+        if (matched > 0) {
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] copy = new byte[8192];
+                long remaining = matched;
+                while (remaining > 0) {
+                    int n = in.read(copy, 0, (int) Math.min(copy.length, remaining));
+                    if (n < 0) {
+                        throw new IOException(file + " changed while being compared");
+                    }
+                    out.write(copy, 0, n);
+                    remaining -= n;
+                }
+            }
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] b, int len) throws IOException {
+        int read = 0;
+        while (read < len) {
+            int n = in.read(b, read, len - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+}
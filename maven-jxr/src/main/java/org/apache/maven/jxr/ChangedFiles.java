@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the source files changed since a base revision, to limit {@link JXR#setChangedFiles(java.util.Collection)} to
+ * them.
+ *
+ * @since 3.6.1
+ */
+public final class ChangedFiles {
+    private ChangedFiles() {
+        // utility class
+    }
+
+    /**
+     * Reads a list of files, one per line. Blank lines and lines starting with {@code #} are ignored.
+     *
+     * @param list the file with the list
+     * @param baseDir the directory the relative paths of the list are relative to
+     * @return the files, resolved against {@code baseDir}
+     * @throws IOException if the list can't be read
+     */
+    public static Set<Path> read(Path list, Path baseDir) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String line : Files.readAllLines(list, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                files.add(baseDir.resolve(line));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Asks git for the files of a working tree that differ from a revision: the tracked files changed since the
+     * revision, committed or not, and the untracked files that are not ignored. Only the files under the given
+     * directory are returned.
+     *
+     * @param workTree a directory of the working tree
+     * @param revision the base revision, for instance {@code origin/master}
+     * @return the files, resolved against {@code workTree}
+     * @throws IllegalArgumentException if the revision starts with {@code -}, which git would take for an option
+     * @throws IOException if git fails
+     */
+    public static Set<Path> fromGit(Path workTree, String revision) throws IOException {
+        if (revision.startsWith("-")) {
+            throw new IllegalArgumentException("Invalid revision: " + revision);
+        }
+        Set<Path> files = new LinkedHashSet<>();
+        for (String file : git(workTree, "diff", "--name-only", "--relative", "--no-renames", revision, "--")) {
+            files.add(workTree.resolve(file));
+        }
+        for (String file : git(workTree, "ls-files", "--others", "--exclude-standard")) {
+            files.add(workTree.resolve(file));
+        }
+        return files;
+    }
+
+    private static List<String> git(Path workTree, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("-c");
+        command.add("core.quotePath=false");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command)
+                .directory(workTree.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                output.write(buffer, 0, n);
+            }
+        }
+        String text = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException(String.join(" ", command) + " failed with exit code " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running " + String.join(" ", command), e);
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\\r?\\n")) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lists the files generated in the destination directory with their size and SHA-256 checksum, and the files of the
+ * previous list that were not generated again, so that deployment tools can transfer only the changes. The list is a
+ * UTF-8 text file:
+ *
+ * <pre>
+ * jxr-checksums 1
+ * F &lt;path&gt; &lt;size&gt; &lt;sha-256&gt;
+ * R &lt;path&gt;
+ * </pre>
+ *
+ * where the fields are separated by tabs, the paths are relative to the destination directory with {@code /} as
+ * separator, {@code F} lines are the generated files and {@code R} lines are the removed files. The checksums are
+ * computed as the files are written. This class is thread-safe.
+ */
+final class ChecksumManifest {
+    /**
+     * Name of the list in the destination directory.
+     */
+    static final String FILENAME = "jxr-checksums.txt";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChecksumManifest.class);
+
+    private static final String HEADER = "jxr-checksums 1";
+
+    private static final String FILE = "F";
+
+    private static final String REMOVED = "R";
+
+    /**
+     * A generated file.
+     */
+    static final class Entry {
+        private final long size;
+
+        private final String hash;
+
+        Entry(long size, String hash) {
+            this.size = size;
+            this.hash = hash;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        String getHash() {
+            return hash;
+        }
+    }
+
+    private final Path root;
+
+    private final Map<String, Entry> previous;
+
+    private final ConcurrentMap<String, Entry> current = new ConcurrentHashMap<>();
+
+    private ChecksumManifest(Path root, Map<String, Entry> previous) {
+        this.root = root;
+        this.previous = previous;
+    }
+
+    /**
+     * Reads the list of the previous run, if any.
+     *
+     * @param root the destination directory
+     * @return the list for the current run
+     */
+    static ChecksumManifest load(Path root) {
+        Path file = root.resolve(FILENAME);
+        Map<String, Entry> previous = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return new ChecksumManifest(root, previous);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\\t", -1);
+                if (fields.length == 4 && FILE.equals(fields[0])) {
+                    previous.put(fields[1], new Entry(Long.parseLong(fields[2]), fields[3]));
+                } else if (fields.length != 2 || !REMOVED.equals(fields[0])) {
+                    throw new IOException("Malformed line: " + line);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // first run
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Unable to read {}, no file will be listed as removed: {}", file, e.getMessage());
+            previous.clear();
+        }
+        return new ChecksumManifest(root, previous);
+    }
+
+    /**
+     * Wraps the stream a file is written to, the file is listed when the stream is closed.
+     *
+     * @param file the file
+     * @param out the stream writing the file
+     * @return the stream to write the file to
+     */
+    OutputStream wrap(Path file, OutputStream out) {
+        return new FilterOutputStream(out) {
+            private final MessageDigest digest = XrefManifest.newDigest();
+
+            private long size;
+
+            private boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                digest.update((byte) b);
+                size++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                digest.update(b, off, len);
+                size += len;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    super.close();
+                    current.put(getPath(file), new Entry(size, XrefManifest.toHex(digest)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Lists a file that was not written again, with its checksum of the previous run or, if it wasn't listed, its
+     * current checksum.
+     *
+     * @param file the file
+     * @throws IOException if the file can't be read
+     */
+    void keep(Path file) throws IOException {
+        String path = getPath(file);
+        Entry entry = previous.get(path);
+        if (entry == null) {
+            MessageDigest digest = XrefManifest.newDigest();
+            long size = 0;
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, n);
+                    size += n;
+                }
+            }
+            entry = new Entry(size, XrefManifest.toHex(digest));
+        }
+        current.put(path, entry);
+    }
+
+    /**
+     * @return the number of files generated by the current run
+     */
+    int getFileCount() {
+        return current.size();
+    }
+
+    /**
+     * @return the paths of the files listed by the previous run that the current run didn't generate, sorted
+     */
+    List<String> getRemoved() {
+        List<String> removed = new ArrayList<>();
+        for (String path : new TreeMap<>(previous).keySet()) {
+            if (!current.containsKey(path)) {
+                removed.add(path);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Writes the list of the current run, replacing the previous one at once.
+     *
+     * @throws IOException if the list can't be written
+     */
+    void save() throws IOException {
+        Path file = root.resolve(FILENAME);
+        Path tmp = file.resolveSibling(FILENAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Entry> e : new TreeMap<>(current).entrySet()) {
+                writer.write(FILE + '\t' + e.getKey() + '\t' + e.getValue().getSize() + '\t' + e.getValue().getHash());
+                writer.newLine();
+            }
+            for (String path : getRemoved()) {
+                writer.write(REMOVED + '\t' + path);
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String getPath(Path file) {
+        return root.normalize().relativize(file.normalize()).toString().replace('\\', '/');
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps each package to the source files whose links depend on its classes, so that the pages affected by a change of
+ * the classes known can be found without rendering the others again.
+ */
+class DependencyIndex {
+    private final Map<String, List<Path>> dependents = new HashMap<>();
+
+    /**
+     * Records that the links of a file depend on the classes of some packages.
+     *
+     * @param file the source file
+     * @param packages the package names
+     */
+    void add(Path file, Collection<String> packages) {
+        for (String pkg : packages) {
+            dependents.computeIfAbsent(pkg, p -> new ArrayList<>()).add(file);
+        }
+    }
+
+    /**
+     * Gets the files whose links may differ between two sets of classes. A package that is only known in one of them
+     * affects all its dependents; a class that was added, removed or moved to another file only affects the dependents
+     * that mention its name.
+     *
+     * @param previous the file names of the classes of the previous run, by package and class name
+     * @param current the file names of the classes of the current run, by package and class name
+     * @param encoding the encoding of the source files
+     * @return the affected files
+     */
+    Set<Path> getAffected(
+            Map<String, Map<String, String>> previous, Map<String, Map<String, String>> current, Charset encoding) {
+        Set<Path> affected = new HashSet<>();
+        Map<Path, Set<String>> candidates = new HashMap<>();
+        for (Map.Entry<String, List<Path>> entry : dependents.entrySet()) {
+            Map<String, String> before = previous.get(entry.getKey());
+            Map<String, String> after = current.get(entry.getKey());
+            if (before == null && after == null) {
+                continue;
+            }
+            if (before == null || after == null) {
+                affected.addAll(entry.getValue());
+                continue;
+            }
+            Set<String> changed = getChangedNames(before, after);
+            if (!changed.isEmpty()) {
+                for (Path file : entry.getValue()) {
+                    candidates.computeIfAbsent(file, f -> new HashSet<>()).addAll(changed);
+                }
+            }
+        }
+
+        for (Map.Entry<Path, Set<String>> candidate : candidates.entrySet()) {
+            if (affected.contains(candidate.getKey())) {
+                continue;
+            }
+            String text;
+            try {
+                text = new String(Files.readAllBytes(candidate.getKey()), encoding);
+            } catch (IOException e) {
+                affected.add(candidate.getKey());
+                continue;
+            }
+            for (String name : candidate.getValue()) {
+                if (mentions(text, name)) {
+                    affected.add(candidate.getKey());
+                    break;
+                }
+            }
+        }
+        return affected;
+    }
+
+    private static Set<String> getChangedNames(Map<String, String> before, Map<String, String> after) {
+        if (before.equals(after)) {
+            return Collections.emptySet();
+        }
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> c : before.entrySet()) {
+            if (!c.getValue().equals(after.get(c.getKey()))) {
+                changed.add(c.getKey());
+            }
+        }
+        for (String name : after.keySet()) {
+            if (!before.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Checks if a text contains a name as a whole Java identifier.
+     *
+     * @param text the text
+     * @param name the name
+     * @return {@code true} if the name is found
+     */
+    static boolean mentions(String text, String name) {
+        int index = text.indexOf(name);
+        while (index >= 0) {
+            int end = index + name.length();
+            if ((index == 0 || !Character.isJavaIdentifierPart(text.charAt(index - 1)))
+                    && (end == text.length() || !Character.isJavaIdentifierPart(text.charAt(end)))) {
+                return true;
+            }
+            index = text.indexOf(name, end);
+        }
+        return false;
+    }
+}
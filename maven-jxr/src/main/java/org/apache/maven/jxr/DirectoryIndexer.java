@@ -18,12 +18,24 @@
  */
 package org.apache.maven.jxr;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -33,6 +45,8 @@ import org.apache.maven.jxr.pacman.PackageType;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class creates the navigational pages for jxr's cross-referenced source
@@ -64,6 +78,10 @@ public class DirectoryIndexer {
      */
     static final String INDEX = "package-summary.html";
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryIndexer.class);
+
+    private static final String FINGERPRINTS_HEADER = "jxr-index 1";
+
     /*
      * Path to the root output directory.
      */
@@ -87,6 +105,34 @@ public class DirectoryIndexer {
 
     private String bottom;
 
+    /*
+     * File keeping the fingerprints of the pages, null if the pages are always written.
+     */
+    private Path fingerprintFile;
+
+    /*
+     * The fingerprints of the previous run, and of the current one, by path relative to the root output directory.
+     */
+    private Map<String, String> previousFingerprints;
+
+    private Map<String, String> fingerprints;
+
+    private int reused;
+
+    /*
+     * Whether a page is only written if its content changed, and the number of pages merged and written
+     */
+    private boolean writeIfChanged;
+
+    private int renderedCount;
+
+    private int writtenCount;
+
+    /*
+     * Lists the pages written, null if they are not listed
+     */
+    private ChecksumManifest checksumManifest;
+
     /**
      * Constructor for the DirectoryIndexer object
      *
@@ -191,6 +237,55 @@ public class DirectoryIndexer {
         return bottom;
     }
 
+    /**
+     * Sets the file keeping a fingerprint of the model of each page. When it is set, the pages whose model and
+     * settings are the same as in the previous run are not written again.
+     *
+     * @param fingerprintFile the file, {@code null} to always write the pages
+     * @since 3.6.1
+     */
+    public void setFingerprintFile(Path fingerprintFile) {
+        this.fingerprintFile = fingerprintFile;
+    }
+
+    /**
+     * Sets whether a page is only written if its content changed, so that an unchanged file keeps its modification
+     * time.
+     *
+     * @param writeIfChanged {@code true} to keep the unchanged files
+     * @since 3.6.1
+     */
+    public void setWriteIfChanged(boolean writeIfChanged) {
+        this.writeIfChanged = writeIfChanged;
+    }
+
+    /**
+     * Sets the list of the generated files the pages are added to.
+     *
+     * @param checksumManifest the list, {@code null} to not list the pages
+     */
+    void setChecksumManifest(ChecksumManifest checksumManifest) {
+        this.checksumManifest = checksumManifest;
+    }
+
+    /**
+     * Gets the number of pages merged by {@link #process()}.
+     *
+     * @return the number of pages
+     */
+    int getRenderedCount() {
+        return renderedCount;
+    }
+
+    /**
+     * Gets the number of pages written by {@link #process()}.
+     *
+     * @return the number of pages
+     */
+    int getWrittenCount() {
+        return writtenCount;
+    }
+
     /**
      * Does the actual indexing.
      *
@@ -198,6 +293,11 @@ public class DirectoryIndexer {
      */
     public void process() throws JxrException {
         ProjectInfo info = getProjectInfo();
+        previousFingerprints = loadFingerprints();
+        fingerprints = new TreeMap<>();
+        reused = 0;
+        renderedCount = 0;
+        writtenCount = 0;
 
         VelocityEngine engine = new VelocityEngine();
         setProperties(engine);
@@ -214,18 +314,24 @@ public class DirectoryIndexer {
         context.put("bottom", getBottom());
         context.put("info", info);
 
-        doVelocity("index", root, context, engine);
-        doVelocity("overview-frame", root, context, engine);
-        doVelocity("allclasses-frame", root, context, engine);
-        doVelocity("overview-summary", root, context, engine);
+        String projectFingerprint = getFingerprint(info.getAllPackages().values());
+        doVelocity("index", ".", projectFingerprint, context, engine);
+        doVelocity("overview-frame", ".", projectFingerprint, context, engine);
+        doVelocity("allclasses-frame", ".", projectFingerprint, context, engine);
+        doVelocity("overview-summary", ".", projectFingerprint, context, engine);
 
         for (PackageInfo pkgInfo : info.getAllPackages().values()) {
             VelocityContext subContext = new VelocityContext(context);
             subContext.put("pkgInfo", pkgInfo);
 
-            String outDir = root + '/' + pkgInfo.getDir();
-            doVelocity("package-summary", outDir, subContext, engine);
-            doVelocity("package-frame", outDir, subContext, engine);
+            String packageFingerprint = getFingerprint(Collections.singleton(pkgInfo));
+            doVelocity("package-summary", pkgInfo.getDir(), packageFingerprint, subContext, engine);
+            doVelocity("package-frame", pkgInfo.getDir(), packageFingerprint, subContext, engine);
+        }
+
+        if (fingerprintFile != null) {
+            LOGGER.debug("Generated {} index pages, {} up to date", fingerprints.size() - reused, reused);
+            saveFingerprints();
         }
     }
 
@@ -250,15 +356,16 @@ public class DirectoryIndexer {
     }
 
     /*
-     * Generate the HTML file according to the Velocity template
+     * Generate the HTML file according to the Velocity template, unless it is the same as in the previous run
      */
-    private void doVelocity(String templateName, String outDir, VelocityContext context, VelocityEngine engine)
+    private void doVelocity(
+            String templateName, String dir, String fingerprint, VelocityContext context, VelocityEngine engine)
             throws JxrException {
         // output file
-        File file = new File(outDir, templateName + ".html");
-        file.getParentFile().mkdirs();
+        File file = new File(root + '/' + dir, templateName + ".html");
+        String page = dir + '/' + templateName + ".html";
 
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), getOutputEncoding())) {
+        try {
             // template file
             StringBuilder templateFile = new StringBuilder();
             File templateDirFile = new File(getTemplateDir());
@@ -271,14 +378,123 @@ public class DirectoryIndexer {
             templateFile.append(".vm");
             Template template = engine.getTemplate(templateFile.toString());
 
-            // do the merge
-            template.merge(context, writer);
-            writer.flush();
+            if (fingerprintFile != null) {
+                fingerprint += '/' + Long.toString(template.getLastModified());
+                fingerprints.put(page, fingerprint);
+                if (fingerprint.equals(previousFingerprints.get(page)) && file.exists()) {
+                    reused++;
+                    if (checksumManifest != null) {
+                        checksumManifest.keep(file.toPath());
+                    }
+                    return;
+                }
+            }
+
+            file.getParentFile().mkdirs();
+            ChangedFileOutputStream changed = writeIfChanged ? new ChangedFileOutputStream(file.toPath()) : null;
+            try (OutputStream stream = changed != null ? changed : new FileOutputStream(file);
+                    OutputStream out = checksumManifest != null ? checksumManifest.wrap(file.toPath(), stream) : stream;
+                    Writer writer = new OutputStreamWriter(out, getOutputEncoding())) {
+                // do the merge
+                template.merge(context, writer);
+                writer.flush();
+                if (changed != null) {
+                    changed.complete();
+                }
+            }
+            renderedCount++;
+            if (changed == null || changed.isWritten()) {
+                writtenCount++;
+            }
         } catch (Exception e) {
             throw new JxrException("Error merging velocity template", e);
         }
     }
 
+    /*
+     * Computes a fingerprint of the model of a page: the settings and the given packages with their classes
+     */
+    private String getFingerprint(Collection<PackageInfo> packages) {
+        if (fingerprintFile == null) {
+            return null;
+        }
+        MessageDigest digest = XrefManifest.newDigest();
+        update(digest, DirectoryIndexer.class.getPackage().getImplementationVersion());
+        update(digest, getTemplateDir());
+        update(digest, getOutputEncoding());
+        update(digest, getWindowTitle());
+        update(digest, getDocTitle());
+        update(digest, getBottom());
+        for (PackageInfo pkgInfo : packages) {
+            update(digest, pkgInfo.getName());
+            update(digest, pkgInfo.getDir());
+            update(digest, pkgInfo.getRootRef());
+            for (ClassInfo classInfo : pkgInfo.getClasses().values()) {
+                update(digest, classInfo.getName());
+                update(digest, classInfo.getFilename());
+            }
+            digest.update((byte) 1);
+        }
+        return XrefManifest.toHex(digest);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /*
+     * Reads the fingerprints of the previous run, none if there is no such file or it can't be read
+     */
+    private Map<String, String> loadFingerprints() {
+        Map<String, String> previous = new HashMap<>();
+        if (fingerprintFile == null) {
+            return previous;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(fingerprintFile, StandardCharsets.UTF_8)) {
+            if (!FINGERPRINTS_HEADER.equals(reader.readLine())) {
+                return previous;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IOException("Malformed line: " + line);
+                }
+                previous.put(line.substring(0, tab), line.substring(tab + 1));
+            }
+        } catch (NoSuchFileException e) {
+            // first run
+        } catch (IOException e) {
+            LOGGER.warn(
+                    "Unable to read {}, all the index pages will be generated: {}", fingerprintFile, e.getMessage());
+            previous.clear();
+        }
+        return previous;
+    }
+
+    /*
+     * Writes the fingerprints of this run, replacing the previous file at once
+     */
+    private void saveFingerprints() throws JxrException {
+        Path tmp = fingerprintFile.resolveSibling(fingerprintFile.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(FINGERPRINTS_HEADER);
+                writer.newLine();
+                for (Map.Entry<String, String> e : fingerprints.entrySet()) {
+                    writer.write(e.getKey());
+                    writer.write('\t');
+                    writer.write(e.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, fingerprintFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new JxrException("Unable to write " + fingerprintFile, e);
+        }
+    }
+
     /*
      * Creates a Map of other Maps containing information about
      * this project's packages and classes, obtained from the PackageManager.
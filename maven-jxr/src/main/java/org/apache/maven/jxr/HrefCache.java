@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.jxr.pacman.ClassType;
+
+/**
+ * Memo of the relative paths and links written in the generated pages, shared by all the files transformed by a
+ * {@link JavaCodeTransform}. The link to a class only depends on the depth of the linking file, so it is built once
+ * for all the files of a given depth instead of once per reference. This class is thread-safe.
+ */
+final class HrefCache {
+    /**
+     * The relative paths to the root of the cross-reference, by package name.
+     */
+    private final ConcurrentMap<String, String> packageRoots = new ConcurrentHashMap<>();
+
+    /**
+     * The paths of the package directories from the root of the cross-reference, by package name.
+     */
+    private final ConcurrentMap<String, String> packageDirs = new ConcurrentHashMap<>();
+
+    /**
+     * The resolved classes, by relative path to the root and class. The classes are keyed by name rather than by
+     * {@link ClassType}, which is created again each time a file is parsed.
+     */
+    private final ConcurrentMap<String, ConcurrentMap<Key, SymbolTable.Symbol>> symbols = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the relative path from the directory of a package to the root of the cross-reference.
+     * EX: {@code ../../../} for {@code org.apache.maven}.
+     *
+     * @param packageName name of the package
+     * @return the relative path, with a trailing slash
+     */
+    String getPackageRoot(String packageName) {
+        return packageRoots.computeIfAbsent(packageName, HrefCache::computePackageRoot);
+    }
+
+    /**
+     * Gets the path of the directory of a package from the root of the cross-reference.
+     * EX: {@code org/apache/maven} for {@code org.apache.maven} or {@code org.apache.maven.*}.
+     *
+     * @param packageName name of the package
+     * @return the path, without trailing slash
+     */
+    String getPackageDir(String packageName) {
+        return packageDirs.computeIfAbsent(packageName, p -> p.replace(".*", "").replace('.', '/'));
+    }
+
+    /**
+     * Gets the link to a class, from a file at the given relative path to the root of the cross-reference.
+     *
+     * @param packageRoot relative path from the linking file to the root
+     * @param packageName name of the package of the class
+     * @param classType the class
+     * @return the resolved class
+     */
+    SymbolTable.Symbol getSymbol(String packageRoot, String packageName, ClassType classType) {
+        ConcurrentMap<Key, SymbolTable.Symbol> rootSymbols =
+                symbols.computeIfAbsent(packageRoot, r -> new ConcurrentHashMap<>());
+        Key key = new Key(packageName, classType.getFilename(), classType.getName());
+        SymbolTable.Symbol symbol = rootSymbols.get(key);
+        if (symbol == null) {
+            String href = packageRoot
+                    + getPackageDir(packageName)
+                    + '/'
+                    + classType.getFilename()
+                    + ".html#"
+                    + classType.getName();
+            symbol = new SymbolTable.Symbol(classType.getName(), href);
+            SymbolTable.Symbol previous = rootSymbols.putIfAbsent(key, symbol);
+            if (previous != null) {
+                symbol = previous;
+            }
+        }
+        return symbol;
+    }
+
+    private static String computePackageRoot(String packageName) {
+        StringBuilder buff = new StringBuilder("../");
+        for (int i = packageName.indexOf('.'); i != -1; i = packageName.indexOf('.', i + 1)) {
+            buff.append("../");
+        }
+        return buff.toString();
+    }
+
+    /**
+     * The package, file and name of a class, which its link is built from.
+     */
+    private static final class Key {
+        private final String packageName;
+
+        private final String filename;
+
+        private final String name;
+
+        Key(String packageName, String filename, String name) {
+            this.packageName = packageName;
+            this.filename = filename;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(packageName, other.packageName)
+                    && Objects.equals(filename, other.filename)
+                    && Objects.equals(name, other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return (Objects.hashCode(packageName) * 31 + Objects.hashCode(filename)) * 31 + Objects.hashCode(name);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escapes source code for HTML in a single pass. Besides {@code &}, {@code <} and {@code >}, a pair of backslashes,
+ * an escaped double quote and a double quote character literal are escaped so that the highlighters don't take them
+ * for the delimiters of a string.
+ */
+final class HtmlEscaper {
+    private HtmlEscaper() {
+        // utility class
+    }
+
+    /**
+     * Escapes a line. A line without characters to escape is returned as it is.
+     *
+     * @param line the line
+     * @param buffer a buffer the escaped line is built in, its content is replaced
+     * @return the escaped line
+     */
+    static String escape(String line, StringBuilder buffer) {
+        int length = line.length();
+        int i = 0;
+        while (i < length && !isSpecial(line.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return line;
+        }
+
+        buffer.setLength(0);
+        int from = 0;
+        int quoteEnd = -1;
+        boolean escaped = false;
+        for (; i < length; i++) {
+            char c = line.charAt(i);
+            String entity;
+            int skip = 0;
+            switch (c) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '\\':
+                    if (i + 1 < length && line.charAt(i + 1) == '\\') {
+                        entity = "&#92;&#92;";
+                        skip = 1;
+                    } else if (i + 1 < length && line.charAt(i + 1) == '"') {
+                        entity = "\\&quot;";
+                        skip = 1;
+                    } else {
+                        continue;
+                    }
+                    break;
+                case '"':
+                    // the quote before isn't the end of the previous literal
+                    if (i - 1 > quoteEnd
+                            && i + 1 < length
+                            && line.charAt(i - 1) == '\''
+                            && line.charAt(i + 1) == '\'') {
+                        entity = "&quot;";
+                        quoteEnd = i + 1;
+                    } else {
+                        continue;
+                    }
+                    break;
+                default:
+                    continue;
+            }
+            buffer.append(line, from, i).append(entity);
+            escaped = true;
+            i += skip;
+            from = i + 1;
+        }
+        if (!escaped) {
+            return line;
+        }
+        buffer.append(line, from, length);
+        return buffer.toString();
+    }
+
+    /**
+     * Writes characters escaped.
+     *
+     * @param buf the characters
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @param out where the characters are written to
+     * @throws IOException on I/O error
+     */
+    static void write(char[] buf, int start, int end, Writer out) throws IOException {
+        int from = start;
+        int quoteEnd = -1;
+        for (int i = start; i < end; i++) {
+            String entity;
+            int skip = 0;
+            switch (buf[i]) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '\\':
+                    if (i + 1 < end && buf[i + 1] == '\\') {
+                        entity = "&#92;&#92;";
+                        skip = 1;
+                    } else if (i + 1 < end && buf[i + 1] == '"') {
+                        entity = "\\&quot;";
+                        skip = 1;
+                    } else {
+                        continue;
+                    }
+                    break;
+                case '"':
+                    if (i - 1 > quoteEnd && i > start && i + 1 < end && buf[i - 1] == '\'' && buf[i + 1] == '\'') {
+                        entity = "&quot;";
+                        quoteEnd = i + 1;
+                    } else {
+                        continue;
+                    }
+                    break;
+                default:
+                    continue;
+            }
+            out.write(buf, from, i - from);
+            out.write(entity);
+            i += skip;
+            from = i + 1;
+        }
+        out.write(buf, from, end - from);
+    }
+
+    private static boolean isSpecial(char c) {
+        return c == '&' || c == '<' || c == '>' || c == '\\' || c == '"';
+    }
+}
@@ -19,10 +19,34 @@
 package org.apache.maven.jxr;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import org.apache.maven.jxr.ant.DirectoryScanner;
 import org.apache.maven.jxr.pacman.PackageManager;
@@ -50,6 +74,16 @@ public class JXR {
      */
     private static final String[] DEFAULT_INCLUDES = {"**/*.java"};
 
+    /**
+     * Name of the symbol index kept in the destination directory by an incremental {@link #xref}.
+     */
+    private static final String SYMBOL_INDEX = ".jxr-symbols";
+
+    /**
+     * Name of the fingerprints of the index pages kept in the destination directory by an incremental {@link #xref}.
+     */
+    private static final String INDEX_FINGERPRINTS = ".jxr-index";
+
     /**
      * Path to destination.
      */
@@ -81,6 +115,75 @@ public class JXR {
      */
     private String[] includes = DEFAULT_INCLUDES;
 
+    /**
+     * The number of threads used to parse and transform source files.
+     */
+    private int threadCount = 1;
+
+    /**
+     * Whether the pages that are up to date are kept.
+     */
+    private boolean incremental;
+
+    /**
+     * Whether the pages are only written if their content changed.
+     */
+    private boolean writeIfChanged;
+
+    /**
+     * Whether the generated files are listed with their checksums.
+     */
+    private boolean checksums;
+
+    /**
+     * The list of the generated files, during an {@link #xref} that lists them.
+     */
+    private ChecksumManifest checksumManifest;
+
+    /**
+     * The resources copied to the destination directory, by path relative to it.
+     */
+    private final Map<String, URL> resources = new LinkedHashMap<>();
+
+    /**
+     * The only source files rendered, {@code null} to render all of them.
+     */
+    private Set<Path> changedFiles;
+
+    /**
+     * The records of the generated pages, during an incremental {@link #xref}.
+     */
+    private XrefManifest manifest;
+
+    /**
+     * The source files whose links may have changed since the previous run, during an incremental {@link #xref}.
+     */
+    private Set<Path> affected = Collections.emptySet();
+
+    /**
+     * The source files of each source directory found by the previous {@link #xref}, while the changes since then are
+     * known from {@link #refresh(Collection)}; {@code null} if the directories are scanned again.
+     */
+    private Map<Path, Set<String>> sourceFiles;
+
+    /**
+     * The source files refreshed since the previous {@link #xref}, {@code null} if {@link #refresh(Collection)} wasn't
+     * called and any file may have changed.
+     */
+    private Set<Path> refreshed;
+
+    /**
+     * Whether the manifest in the destination directory was written by the previous {@link #xref}, so that it holds
+     * the content of the source files that weren't refreshed since.
+     */
+    private boolean manifestSaved;
+
+    /**
+     * The source files that changed since the previous run, during an incremental {@link #xref} following another one
+     * of this instance, {@code null} if any file may have changed.
+     */
+    private Set<Path> modified;
+
     public JXR(PackageManager pkgmgr, JavaCodeTransform transformer) {
         this.pkgmgr = pkgmgr;
         this.transformer = transformer;
@@ -95,19 +198,24 @@ public class JXR {
      * @throws IOException on transformation error
      */
     public void processPath(PackageManager packageManager, Path sourceDir, String bottom) throws IOException {
-        DirectoryScanner ds = new DirectoryScanner();
-        // I'm not sure why we don't use the directoryScanner in packageManager,
-        // but since we don't we need to set includes/excludes here as well
-        ds.setExcludes(excludes);
-        ds.setIncludes(includes);
-        ds.addDefaultExcludes();
-
-        ds.setBasedir(sourceDir.toString());
-        ds.scan();
-
-        // now get the list of included files
+        processPath(packageManager, sourceDir, scan(sourceDir), bottom);
+    }
 
-        String[] files = ds.getIncludedFiles();
+    /**
+     * Process the given files of a source directory, as previously returned by a scan of that directory.
+     *
+     * @param packageManager package manager
+     * @param sourceDir source directory.
+     * @param files the files to transform, relative to {@code sourceDir}
+     * @param bottom bottom text
+     * @throws IOException on transformation error
+     */
+    public void processPath(PackageManager packageManager, Path sourceDir, String[] files, String bottom)
+            throws IOException {
+        if (threadCount > 1 && files.length > 1) {
+            processPathConcurrently(sourceDir, files, bottom);
+            return;
+        }
 
         for (String file : files) {
             Path sourceFile = sourceDir.resolve(file);
@@ -120,6 +228,103 @@ public class JXR {
         }
     }
 
+    /**
+     * Scans a source directory for the files matching the include and exclude patterns.
+     *
+     * @param sourceDir source directory
+     * @return the included files, relative to {@code sourceDir}
+     */
+    private String[] scan(Path sourceDir) {
+        DirectoryScanner ds = newScanner(sourceDir);
+        ds.scan();
+
+        return ds.getIncludedFiles();
+    }
+
+    /**
+     * Updates the files of a source directory found by the previous run with the refreshed files, instead of scanning
+     * the directory again.
+     *
+     * @param sourceDir source directory
+     * @param known the files found by the previous run, relative to {@code sourceDir}
+     * @param changed the refreshed files
+     * @return the included files, relative to {@code sourceDir}
+     */
+    private String[] rescan(Path sourceDir, Set<String> known, Set<Path> changed) {
+        DirectoryScanner ds = newScanner(sourceDir);
+        Set<String> files = new LinkedHashSet<>(known);
+        for (Path file : changed) {
+            if (!file.startsWith(sourceDir)) {
+                continue;
+            }
+            String name = sourceDir.relativize(file).toString();
+            if (Files.isRegularFile(file) && ds.isSelected(name)) {
+                files.add(name);
+            } else {
+                files.remove(name);
+            }
+        }
+        return files.toArray(new String[0]);
+    }
+
+    private DirectoryScanner newScanner(Path sourceDir) {
+        DirectoryScanner ds = new DirectoryScanner();
+        ds.setExcludes(excludes);
+        ds.setIncludes(includes);
+        ds.addDefaultExcludes();
+
+        ds.setBasedir(sourceDir.toFile());
+        return ds;
+    }
+
+    /**
+     * Transforms the given files using a pool of {@link #setThreadCount(int) threadCount} workers, each worker
+     * rendering a different file.
+     *
+     * @param sourceDir source directory
+     * @param files the files to transform, relative to {@code sourceDir}
+     * @param bottom bottom text
+     * @throws IOException on transformation error
+     */
+    private void processPathConcurrently(Path sourceDir, String[] files, String bottom) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, files.length));
+        try {
+            List<Future<Void>> results = new ArrayList<>(files.length);
+            for (String file : files) {
+                Path sourceFile = sourceDir.resolve(file);
+
+                if (isJavaFile(sourceFile.toString())) {
+                    String newFileName = file.replaceFirst(".java$", ".html");
+                    Path destFile = this.destDir.resolve(newFileName);
+
+                    results.add(executor.submit(() -> {
+                        transform(sourceFile, destFile, bottom);
+                        return null;
+                    }));
+                }
+            }
+
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while transforming " + sourceDir, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Check to see if the file is a Java source file.
      *
@@ -159,9 +364,9 @@ public class JXR {
     }
 
     /**
-     * Sets the input encoding.
+     * Sets the input encoding, which the source files are both parsed and rendered with.
      *
-     * @param inputEncoding input encoding
+     * @param inputEncoding input encoding, {@code null} for the default charset of the platform
      */
     public void setInputEncoding(String inputEncoding) {
         this.inputEncoding = inputEncoding;
@@ -194,6 +399,164 @@ public class JXR {
         this.revision = revision;
     }
 
+    /**
+     * Sets the number of threads used to parse and transform source files. With more than one thread, several files
+     * are processed concurrently; the generated files are the same as with a single thread.
+     *
+     * @param threadCount number of threads, values lower than 1 are treated as 1
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Sets whether {@link #xref} only generates the pages that are not up to date. A manifest in the destination
+     * directory records the content of the source file of each page and the classes known by the previous run; a page
+     * is generated again if its source file changed, or if a class its links may resolve to was added, removed or
+     * moved, and the pages whose source file is gone are removed. The symbols of the source files are kept in an index
+     * next to the manifest, so that only the changed files are parsed, and the index pages whose packages and classes
+     * are unchanged are not written again.
+     *
+     * @param incremental {@code true} to keep the pages that are up to date
+     * @since 3.6.1
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Sets whether {@link #xref} only writes the pages whose content changed. The pages are still rendered, but an
+     * unchanged file keeps its modification time, so that copying the output elsewhere only transfers the changes. The
+     * number of files written is logged.
+     *
+     * @param writeIfChanged {@code true} to keep the unchanged files
+     * @since 3.6.1
+     */
+    public void setWriteIfChanged(boolean writeIfChanged) {
+        this.writeIfChanged = writeIfChanged;
+    }
+
+    /**
+     * Sets whether {@link #xref} lists the files it generates, with their size and SHA-256 checksum, in the
+     * {@value ChecksumManifest#FILENAME} file of the destination directory. The files listed by the previous run that
+     * were not generated again are listed as removed, so that the changes can be deployed without comparing the files.
+     *
+     * @param checksums {@code true} to list the generated files
+     * @since 3.6.1
+     */
+    public void setChecksums(boolean checksums) {
+        this.checksums = checksums;
+    }
+
+    /**
+     * Adds a resource, such as the stylesheet of the pages, that {@link #xref} copies to the destination directory
+     * along with the pages. The copy is only written if its content changed, and it is listed with the generated
+     * files when {@link #setChecksums(boolean) checksums} are enabled.
+     *
+     * @param name path of the copy, relative to the destination directory
+     * @param resource the resource to copy
+     * @since 3.6.1
+     */
+    public void addResource(String name, URL resource) {
+        resources.put(name, resource);
+    }
+
+    /**
+     * Limits the pages generated by {@link #xref} to the ones of the given source files, for instance the files changed
+     * since a base revision as found by {@link ChangedFiles}. All the source files are still parsed, so that the pages
+     * link to all the classes, and all the index pages are generated.
+     *
+     * @param changedFiles the source files, {@code null} to generate the pages of all the source files
+     * @throws IOException if a path can't be resolved
+     * @since 3.6.1
+     */
+    public void setChangedFiles(Collection<Path> changedFiles) throws IOException {
+        if (changedFiles == null) {
+            this.changedFiles = null;
+            return;
+        }
+        this.changedFiles = new HashSet<>();
+        for (Path file : changedFiles) {
+            // deleted files have no page
+            if (Files.exists(file)) {
+                this.changedFiles.add(file.toRealPath());
+            }
+        }
+    }
+
+    /**
+     * Tells the next {@link #xref} of this instance which source files were created, modified or deleted since the
+     * previous one, so that only these files are checked again: the source directories are not scanned, the other
+     * files are neither parsed nor read, and their pages are only generated again if a class they link to changed.
+     * This is how {@link XrefWatcher} keeps the cross-reference up to date while the sources are edited. If a file
+     * can't be resolved, all the files are checked.
+     *
+     * @param files the changed files, a directory standing for the files under it, {@code null} to check all the files
+     * @since 3.6.1
+     */
+    public void refresh(Collection<Path> files) {
+        Set<Path> changed = null;
+        if (files != null && sourceFiles != null) {
+            try {
+                changed = resolve(files);
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.debug("Unable to resolve the changed files, checking all of them", e);
+            }
+        }
+        if (changed == null) {
+            sourceFiles = null;
+            refreshed = null;
+            pkgmgr.refresh(null);
+            return;
+        }
+        if (refreshed == null) {
+            refreshed = new HashSet<>();
+        }
+        refreshed.addAll(changed);
+        pkgmgr.refresh(changed);
+    }
+
+    /**
+     * Resolves changed files and directories to the source files they stand for.
+     */
+    private Set<Path> resolve(Collection<Path> files) throws IOException {
+        Set<Path> changed = new HashSet<>();
+        for (Path file : files) {
+            file = toRealPath(file);
+            if (Files.isDirectory(file)) {
+                try (Stream<Path> paths = Files.walk(file)) {
+                    paths.filter(Files::isRegularFile).forEach(changed::add);
+                }
+            } else {
+                changed.add(file);
+            }
+            if (!Files.exists(file)) {
+                // the files of a deleted directory
+                for (Map.Entry<Path, Set<String>> entry : sourceFiles.entrySet()) {
+                    for (String name : entry.getValue()) {
+                        Path known = entry.getKey().resolve(name);
+                        if (known.startsWith(file)) {
+                            changed.add(known);
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Resolves a file like the source directories, even if it was deleted.
+     */
+    private static Path toRealPath(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath().normalize();
+        if (Files.exists(absolute)) {
+            return absolute.toRealPath();
+        }
+        Path parent = absolute.getParent();
+        return parent != null ? toRealPath(parent).resolve(absolute.getFileName()) : absolute;
+    }
+
     /**
      * Performs the cross-referencing.
      *
@@ -207,31 +570,153 @@ public class JXR {
      */
     public void xref(List<String> sourceDirs, String templateDir, String windowTitle, String docTitle, String bottom)
             throws IOException, JxrException {
+        pkgmgr.getFileManager().setEncoding(inputEncoding);
         pkgmgr.setExcludes(excludes);
         pkgmgr.setIncludes(includes);
+        pkgmgr.setThreadCount(threadCount);
+        transformer.setWriteIfChanged(writeIfChanged);
+        int rendered = transformer.getRenderedCount();
+        int written = transformer.getWrittenCount();
+
+        // what the previous run found, if the changes since then are known
+        Set<Path> changed = refreshed;
+        Map<Path, Set<String>> knownFiles = changed != null ? sourceFiles : null;
+        boolean knownManifest = manifestSaved;
+        sourceFiles = null;
+        refreshed = null;
+        manifestSaved = false;
+        Map<Path, Set<String>> foundFiles = new HashMap<>();
+
+        if (incremental) {
+            manifest =
+                    XrefManifest.load(destDir.resolve(XrefManifest.FILENAME), getOptionsDigest(sourceDirs, bottom));
+            if (knownFiles == null) {
+                pkgmgr.setSymbolIndex(destDir.resolve(SYMBOL_INDEX));
+            } else if (knownManifest) {
+                // the unchanged files were parsed by the previous run, and their content is in its manifest
+                modified = changed;
+            }
+        }
+        if (checksums) {
+            checksumManifest = ChecksumManifest.load(destDir);
+            transformer.setChecksumManifest(checksumManifest);
+        }
+        try {
+            // go through each source directory and xref the java files
+            int step = 0;
+            for (String dir : sourceDirs) {
+                Path path = Paths.get(dir).toRealPath();
 
-        // go through each source directory and xref the java files
-        for (String dir : sourceDirs) {
-            Path path = Paths.get(dir).toRealPath();
+                // scan once, both the symbol collection and the rendering work on the same files
+                Set<String> known = knownFiles != null ? knownFiles.get(path) : null;
+                String[] files = known != null ? rescan(path, known, changed) : scan(path);
+                foundFiles.put(path, new LinkedHashSet<>(Arrays.asList(files)));
 
-            pkgmgr.process(path);
+                pkgmgr.process(path, files);
 
-            processPath(pkgmgr, path, bottom);
-        }
+                if (manifest != null) {
+                    invalidate(step++, path, files);
+                }
+
+                processPath(pkgmgr, path, files, bottom);
+            }
+
+            if (manifest != null) {
+                List<String> removed = manifest.getRemoved();
+                for (String output : removed) {
+                    LOGGER.debug("Removing " + output);
+                    Files.deleteIfExists(destDir.resolve(output));
+                }
+                manifest.save();
+                pkgmgr.saveSymbolIndex();
+                LOGGER.info(
+                        "Generated {} cross-reference pages, {} up to date, {} removed",
+                        manifest.getUpdated(),
+                        manifest.getReused(),
+                        removed.size());
+            }
+
+            // once we have all the source files xref'd, create the index pages
+            DirectoryIndexer indexer = new DirectoryIndexer(pkgmgr, destDir.toString());
+            indexer.setOutputEncoding(outputEncoding);
+            indexer.setTemplateDir(templateDir);
+            indexer.setWindowTitle(windowTitle);
+            indexer.setDocTitle(docTitle);
+            indexer.setBottom(bottom);
+            if (incremental) {
+                indexer.setFingerprintFile(destDir.resolve(INDEX_FINGERPRINTS));
+            }
+            indexer.setWriteIfChanged(writeIfChanged);
+            indexer.setChecksumManifest(checksumManifest);
+            indexer.process();
 
-        // once we have all the source files xref'd, create the index pages
-        DirectoryIndexer indexer = new DirectoryIndexer(pkgmgr, destDir.toString());
-        indexer.setOutputEncoding(outputEncoding);
-        indexer.setTemplateDir(templateDir);
-        indexer.setWindowTitle(windowTitle);
-        indexer.setDocTitle(docTitle);
-        indexer.setBottom(bottom);
-        indexer.process();
+            copyResources();
+
+            if (writeIfChanged) {
+                rendered = transformer.getRenderedCount() - rendered + indexer.getRenderedCount();
+                written = transformer.getWrittenCount() - written + indexer.getWrittenCount();
+                LOGGER.info("Wrote {} of the {} pages rendered, the others are unchanged", written, rendered);
+            }
+
+            if (checksumManifest != null) {
+                checksumManifest.save();
+                LOGGER.info(
+                        "Listed {} files in {}, {} removed since the previous run",
+                        checksumManifest.getFileCount(),
+                        ChecksumManifest.FILENAME,
+                        checksumManifest.getRemoved().size());
+            }
+
+            sourceFiles = foundFiles;
+            manifestSaved = incremental;
+        } finally {
+            if (manifest != null) {
+                pkgmgr.setSymbolIndex(null);
+                manifest = null;
+                affected = Collections.emptySet();
+                modified = null;
+            }
+            if (checksumManifest != null) {
+                transformer.setChecksumManifest(null);
+                checksumManifest = null;
+            }
+        }
     }
 
     // ----------------------------------------------------------------------
     // private methods
     // ----------------------------------------------------------------------
+    /**
+     * Finds the source files of a directory whose links may differ from the previous run, by comparing the classes
+     * known before rendering the directory with the ones known at the same point of the previous run.
+     *
+     * @param step index of the source directory
+     * @param sourceDir the source directory
+     * @param files the files of the source directory
+     */
+    private void invalidate(int step, Path sourceDir, String[] files) {
+        Map<String, Map<String, String>> symbols = XrefManifest.getSymbols(pkgmgr);
+        Map<String, Map<String, String>> previousSymbols = manifest.getPreviousSymbols(step);
+        manifest.putSymbols(step, symbols);
+
+        DependencyIndex index = new DependencyIndex();
+        for (String file : files) {
+            Path sourceFile = sourceDir.resolve(file);
+            if (!isJavaFile(sourceFile.toString())) {
+                continue;
+            }
+            index.add(sourceFile, transformer.getVisiblePackages(sourceFile));
+            Path destFile = destDir.resolve(file.replaceFirst(".java$", ".html"));
+            String output = destDir.relativize(destFile).toString().replace('\\', '/');
+            XrefManifest.Entry previous = manifest.getPrevious(output);
+            if (previous != null) {
+                index.add(sourceFile, previous.getQualifiedPackages());
+            }
+        }
+        Charset encoding = inputEncoding != null ? Charset.forName(inputEncoding) : Charset.defaultCharset();
+        affected = index.getAffected(previousSymbols, symbols, encoding);
+    }
+
     /**
      * Given a source file transform it into HTML and write it to the
      * destination (dest) file.
@@ -242,12 +727,148 @@ public class JXR {
      * @throws IOException if the transform can't happen for some reason
      */
     private void transform(Path sourceFile, Path destFile, String bottom) throws IOException {
-        LOGGER.debug(sourceFile + " -> " + destFile);
+        if (changedFiles != null && !changedFiles.contains(sourceFile)) {
+            discardSource(sourceFile);
+            keep(sourceFile, destFile);
+            return;
+        }
 
         // get a relative link to the javadocs
         Path javadoc = javadocLinkDir != null ? getRelativeLink(destFile.getParent(), javadocLinkDir) : null;
+
+        XrefManifest manifest = this.manifest;
+        if (manifest == null) {
+            LOGGER.debug(sourceFile + " -> " + destFile);
+            transformer.transform(
+                    sourceFile, destFile, locale, inputEncoding, outputEncoding, javadoc, this.revision, bottom);
+            return;
+        }
+
+        String output = destDir.relativize(destFile).toString().replace('\\', '/');
+        String source = sourceFile.toString();
+        XrefManifest.Entry previous = manifest.getPrevious(output);
+        String sourceHash = previous != null && previous.getSource().equals(source) && isUnmodified(sourceFile)
+                ? previous.getSourceHash()
+                : XrefManifest.hash(sourceFile);
+
+        if (previous != null
+                && previous.getSource().equals(source)
+                && previous.getSourceHash().equals(sourceHash)
+                && !affected.contains(sourceFile)
+                && Files.exists(destFile)) {
+            LOGGER.debug(sourceFile + " is up to date");
+            discardSource(sourceFile);
+            manifest.reuse(output, previous);
+            if (checksumManifest != null) {
+                checksumManifest.keep(destFile);
+            }
+            return;
+        }
+
+        LOGGER.debug(sourceFile + " -> " + destFile);
+        Set<String> recorded = new TreeSet<>();
         transformer.transform(
-                sourceFile, destFile, locale, inputEncoding, outputEncoding, javadoc, this.revision, bottom);
+                sourceFile, destFile, locale, inputEncoding, outputEncoding, javadoc, this.revision, bottom, recorded);
+        manifest.update(output, new XrefManifest.Entry(source, sourceHash, recorded));
+    }
+
+    /**
+     * Drops the lexed source of a file that isn't rendered, which would otherwise be held by the source cache.
+     *
+     * @param sourceFile the java source file
+     */
+    private void discardSource(Path sourceFile) {
+        pkgmgr.getFileManager().takeSource(sourceFile, inputEncoding);
+    }
+
+    /**
+     * Checks if a source file is known to be unchanged since the previous run.
+     *
+     * @param sourceFile the java source file
+     * @return {@code true} if the file wasn't refreshed since a previous run of this instance
+     */
+    private boolean isUnmodified(Path sourceFile) {
+        Set<Path> modified = this.modified;
+        return modified != null && !modified.contains(sourceFile);
+    }
+
+    /**
+     * Keeps the page of a source file that isn't rendered, as it is.
+     *
+     * @param sourceFile the java source file
+     * @param destFile the page
+     * @throws IOException if the page can't be read
+     */
+    private void keep(Path sourceFile, Path destFile) throws IOException {
+        if (!Files.exists(destFile)) {
+            return;
+        }
+        XrefManifest manifest = this.manifest;
+        if (manifest != null) {
+            String output = destDir.relativize(destFile).toString().replace('\\', '/');
+            XrefManifest.Entry previous = manifest.getPrevious(output);
+            if (previous == null || !previous.getSource().equals(sourceFile.toString())) {
+                // not generated by an incremental run, it will be generated again by the next one
+                return;
+            }
+            manifest.reuse(output, previous);
+        }
+        if (checksumManifest != null) {
+            checksumManifest.keep(destFile);
+        }
+    }
+
+    /**
+     * Copies the resources to the destination directory, leaving the copies whose content is the same as they were.
+     */
+    private void copyResources() {
+        for (Map.Entry<String, URL> resource : resources.entrySet()) {
+            Path file = destDir.resolve(resource.getKey());
+            try {
+                Files.createDirectories(file.getParent());
+                try (ChangedFileOutputStream changed = new ChangedFileOutputStream(file);
+                        OutputStream out = checksumManifest != null ? checksumManifest.wrap(file, changed) : changed;
+                        InputStream in = resource.getValue().openStream()) {
+                    byte[] buffer = new byte[8192];
+                    int n;
+                    while ((n = in.read(buffer)) >= 0) {
+                        out.write(buffer, 0, n);
+                    }
+                    out.flush();
+                    changed.complete();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Unable to copy {} to {}", resource.getValue(), file, e);
+            }
+        }
+    }
+
+    /**
+     * Computes a digest of the options the source files are rendered with, a page generated with other options is not
+     * up to date.
+     *
+     * @param sourceDirs source directories
+     * @param bottom bottom text
+     * @return the digest, in hexadecimal
+     */
+    private String getOptionsDigest(List<String> sourceDirs, String bottom) {
+        MessageDigest digest = XrefManifest.newDigest();
+        String[] options = {
+            JXR.class.getPackage().getImplementationVersion(),
+            String.valueOf(transformer.getEngine()),
+            String.valueOf(locale),
+            inputEncoding,
+            outputEncoding,
+            String.valueOf(javadocLinkDir),
+            revision,
+            bottom,
+            String.valueOf(sourceDirs)
+        };
+        for (String option : options) {
+            digest.update(String.valueOf(option).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return XrefManifest.toHex(digest);
     }
 
     /**
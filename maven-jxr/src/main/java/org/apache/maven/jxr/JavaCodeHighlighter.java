@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.apache.maven.jxr.util.JavaLexer;
+import org.apache.maven.jxr.util.JavaSource;
+import org.apache.maven.jxr.util.JavaTokens;
+
+/**
+ * Syntax highlights and cross-references the source of a single file, using a {@link JavaLexer} that classifies each
+ * character once instead of the chain of line filters of {@link JavaCodeTransform}. Lines are read into a reusable
+ * buffer and the HTML is written straight to the output, without building intermediate strings.
+ *
+ * @see JavaCodeTransform.Engine#LEXER
+ */
+final class JavaCodeHighlighter {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Resolves the classes referenced in the file, or {@code null} if it couldn't be parsed, in which case nothing is
+     * linked.
+     */
+    private final SymbolTable symbols;
+
+    private final JavaLexer lexer = new JavaLexer();
+
+    private final JavaTokens lineTokens = new JavaTokens();
+
+    JavaCodeHighlighter(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Highlights all lines of the source, each preceded by its line number.
+     *
+     * @param in the source
+     * @param out where the HTML is written to
+     * @throws IOException on I/O error
+     */
+    void highlight(Reader in, PageWriter out) throws IOException {
+        char[] buf = new char[BUFFER_SIZE];
+        int count = 0;
+        int lineStart = 0;
+        int pos = 0;
+        int linenumber = 1;
+        boolean skipLineFeed = false;
+
+        while (true) {
+            if (pos == count) {
+                if (lineStart > 0) {
+                    // drop the lines already written
+                    System.arraycopy(buf, lineStart, buf, 0, count - lineStart);
+                    count -= lineStart;
+                    pos -= lineStart;
+                    lineStart = 0;
+                }
+                if (count == buf.length) {
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+                }
+                int read = in.read(buf, count, buf.length - count);
+                if (read < 0) {
+                    break;
+                }
+                count += read;
+                continue;
+            }
+
+            char c = buf[pos++];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    lineStart = pos;
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                writeLine(linenumber++, buf, lineStart, pos - 1, out);
+                skipLineFeed = c == '\r';
+                lineStart = pos;
+            }
+        }
+
+        if (lineStart < count) {
+            writeLine(linenumber, buf, lineStart, count, out);
+        }
+    }
+
+    /**
+     * Highlights all lines of a source that has already been lexed.
+     *
+     * @param source the lexed source
+     * @param out where the HTML is written to
+     * @throws IOException on I/O error
+     */
+    void highlight(JavaSource source, PageWriter out) throws IOException {
+        char[] text = source.getText();
+        JavaTokens tokens = source.getTokens();
+        for (int line = 0; line < source.getLineCount(); line++) {
+            writeLine(line + 1, text, tokens, source.getFirstToken(line), source.getEndToken(line), out);
+        }
+    }
+
+    private void writeLine(int linenumber, char[] buf, int start, int end, PageWriter out) throws IOException {
+        lineTokens.clear();
+        lexer.lexLine(buf, start, end, lineTokens);
+        writeLine(linenumber, buf, lineTokens, 0, lineTokens.size(), out);
+    }
+
+    private void writeLine(int linenumber, char[] buf, JavaTokens tokens, int from, int to, PageWriter out)
+            throws IOException {
+        out.write("<a class=\"jxr_linenumber\" name=\"L");
+        out.writeNumber(linenumber);
+        out.write("\" href=\"#L");
+        out.writeNumber(linenumber);
+        out.write("\">");
+        out.writeNumber(linenumber);
+        out.write("</a>");
+        out.write(linenumber < 10 ? "   " : linenumber < 100 ? "  " : " ");
+
+        writeTokens(buf, tokens, from, to, out);
+
+        out.newLine();
+    }
+
+    /**
+     * Checks if the character next to an identifier ends the word, that is if it is in a string or a comment, or one
+     * of the characters that break words in {@link org.apache.maven.jxr.util.SimpleWordTokenizer}.
+     *
+     * @param buf buffer holding the line
+     * @param tokens tokens of the line
+     * @param t the index of the token next to the identifier
+     * @param i the offset of the character next to the identifier
+     */
+    private static boolean isWordBoundary(char[] buf, JavaTokens tokens, int t, int i) {
+        if (tokens.kind(t) != JavaLexer.TEXT) {
+            return true;
+        }
+        switch (buf[i]) {
+            case '(':
+            case ')':
+            case '[':
+            case ' ':
+            case '{':
+            case '}':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Writes the tokens of the line with their markup. Like {@link JavaCodeTransform}, only class names that stand
+     * as a word of their own are linked, see {@link #isWordBoundary(char[], JavaTokens, int, int)}.
+     */
+    private void writeTokens(char[] buf, JavaTokens tokens, int from, int to, PageWriter out) throws IOException {
+        // the kind of the <em> or <span> currently open, or -1
+        int open = -1;
+
+        for (int t = from; t < to; t++) {
+            int kind = tokens.kind(t);
+            int start = tokens.start(t);
+            int end = tokens.end(t);
+
+            // URIs stay within the markup of their comment
+            int markup = kind == JavaLexer.URI ? open : kind;
+            if (open != -1 && open != markup) {
+                out.write(open == JavaLexer.STRING ? "</span>" : "</em>");
+                open = -1;
+            }
+
+            switch (kind) {
+                case JavaLexer.COMMENT:
+                case JavaLexer.JAVADOC:
+                    if (open == -1) {
+                        out.write(kind == JavaLexer.JAVADOC
+                                ? "<em class=\"jxr_javadoccomment\">"
+                                : "<em class=\"jxr_comment\">");
+                        open = kind;
+                    }
+                    HtmlEscaper.write(buf, start, end, out);
+                    break;
+                case JavaLexer.STRING:
+                case JavaLexer.TEXT_BLOCK:
+                    if (open == -1) {
+                        out.write("<span class=\"jxr_string\">");
+                        open = JavaLexer.STRING;
+                    }
+                    HtmlEscaper.write(buf, start, end, out);
+                    break;
+                case JavaLexer.URI:
+                    out.write("<a href=\"");
+                    HtmlEscaper.write(buf, start, end, out);
+                    out.write("\" target=\"alexandria_uri\">");
+                    HtmlEscaper.write(buf, start, end, out);
+                    out.write("</a>");
+                    break;
+                case JavaLexer.KEYWORD:
+                    out.write("<strong class=\"jxr_keyword\">");
+                    out.write(buf, start, end - start);
+                    out.write("</strong>");
+                    break;
+                case JavaLexer.IDENTIFIER:
+                    SymbolTable.Symbol symbol = null;
+                    if (symbols != null
+                            && (t == from || isWordBoundary(buf, tokens, t - 1, start - 1))
+                            && (t + 1 == to || isWordBoundary(buf, tokens, t + 1, end))) {
+                        symbol = symbols.resolve(buf, start, end);
+                    }
+                    if (symbol != null) {
+                        out.write(symbol.getLink());
+                    } else {
+                        out.write(buf, start, end - start);
+                    }
+                    break;
+                default:
+                    HtmlEscaper.write(buf, start, end, out);
+            }
+        }
+
+        if (open != -1) {
+            out.write(open == JavaLexer.STRING ? "</span>" : "</em>");
+        }
+    }
+}
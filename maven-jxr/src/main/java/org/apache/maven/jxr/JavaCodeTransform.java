@@ -49,37 +49,31 @@ package org.apache.maven.jxr;
  */
 
 import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Hashtable;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.maven.jxr.pacman.ClassType;
 import org.apache.maven.jxr.pacman.FileManager;
-import org.apache.maven.jxr.pacman.ImportType;
 import org.apache.maven.jxr.pacman.JavaFile;
 import org.apache.maven.jxr.pacman.PackageManager;
-import org.apache.maven.jxr.pacman.PackageType;
+import org.apache.maven.jxr.util.JavaKeywords;
+import org.apache.maven.jxr.util.JavaSource;
+import org.apache.maven.jxr.util.NameTable;
 import org.apache.maven.jxr.util.SimpleWordTokenizer;
-import org.apache.maven.jxr.util.StringEntry;
+import org.apache.maven.jxr.util.SourceReader;
+import org.apache.maven.jxr.util.UriScanner;
 
 /**
  * Syntax highlights java by turning it into HTML. A codeviewer object is created and then keeps state as lines are
@@ -163,59 +157,36 @@ public class JavaCodeTransform implements Serializable {
      */
     private static final String STYLESHEET_FILENAME = "stylesheet.css";
 
-    private static final String[] VALID_URI_SCHEMES = {"http://", "https://", "mailto:"};
-
-    /**
-     * Specify the only characters that are allowed in a URI besides alpha and numeric characters. Refer RFC2396 -
-     * http://www.ietf.org/rfc/rfc2396.txt
-     */
-    private static final char[] VALID_URI_CHARS = {
-        '?', '+', '%', '&', ':', '/', '.', '@', '_', ';', '=', '$', ',', '-', '!', '~', '*', '\'', '(', ')'
-    };
-
     // ----------------------------------------------------------------------
     // private fields
     // ----------------------------------------------------------------------
 
     /**
-     * HashTable containing java reserved words
-     */
-    private Map<String, String> reservedWords = new Hashtable<>();
-
-    /**
-     * Flag set to true when a multi-line comment is started.
+     * The engine used to highlight the source code.
      */
-    private boolean inMultiLineComment = false;
+    private Engine engine = Engine.FILTERS;
 
     /**
-     * Flag set to true when a javadoc comment is started.
+     * Whether a page is only written if its content changed.
      */
-    private boolean inJavadocComment = false;
+    private boolean writeIfChanged;
 
     /**
-     * File name that is currently being processed.
+     * The number of pages rendered, and of those that were written.
      */
-    private Path currentFilename = null;
+    private final AtomicInteger renderedCount = new AtomicInteger();
 
-    /**
-     * Revision of the currently transformed document.
-     */
-    private String revision = null;
+    private final AtomicInteger writtenCount = new AtomicInteger();
 
     /**
-     * The output encoding
+     * Lists the pages written, {@code null} if they are not listed.
      */
-    private String outputEncoding = null;
+    private volatile ChecksumManifest checksumManifest;
 
     /**
-     * The wanted locale
+     * Revision of the most recently transformed document.
      */
-    private Locale locale = null;
-
-    /**
-     * Relative path to javadocs, suitable for hyperlinking.
-     */
-    private Path javadocLinkDir;
+    private volatile String revision = null;
 
     /**
      * Package Manager for this project.
@@ -227,63 +198,10 @@ public class JavaCodeTransform implements Serializable {
      */
     private final FileManager fileManager;
 
-    {
-        reservedWords.put("abstract", "abstract");
-        reservedWords.put("do", "do");
-        reservedWords.put("inner", "inner");
-        reservedWords.put("public", "public");
-        reservedWords.put("var", "var");
-        reservedWords.put("boolean", "boolean");
-        reservedWords.put("continue", "continue");
-        reservedWords.put("int", "int");
-        reservedWords.put("return", "return");
-        reservedWords.put("void", "void");
-        reservedWords.put("break", "break");
-        reservedWords.put("else", "else");
-        reservedWords.put("interface", "interface");
-        reservedWords.put("short", "short");
-        reservedWords.put("volatile", "volatile");
-        reservedWords.put("byvalue", "byvalue");
-        reservedWords.put("extends", "extends");
-        reservedWords.put("long", "long");
-        reservedWords.put("static", "static");
-        reservedWords.put("while", "while");
-        reservedWords.put("case", "case");
-        reservedWords.put("final", "final");
-        reservedWords.put("native", "native");
-        reservedWords.put("super", "super");
-        reservedWords.put("transient", "transient");
-        reservedWords.put("cast", "cast");
-        reservedWords.put("float", "float");
-        reservedWords.put("new", "new");
-        reservedWords.put("rest", "rest");
-        reservedWords.put("catch", "catch");
-        reservedWords.put("for", "for");
-        reservedWords.put("null", "null");
-        reservedWords.put("synchronized", "synchronized");
-        reservedWords.put("char", "char");
-        reservedWords.put("finally", "finally");
-        reservedWords.put("operator", "operator");
-        reservedWords.put("this", "this");
-        reservedWords.put("class", "class");
-        reservedWords.put("generic", "generic");
-        reservedWords.put("outer", "outer");
-        reservedWords.put("switch", "switch");
-        reservedWords.put("const", "const");
-        reservedWords.put("goto", "goto");
-        reservedWords.put("package", "package");
-        reservedWords.put("throw", "throw");
-        reservedWords.put("double", "double");
-        reservedWords.put("if", "if");
-        reservedWords.put("private", "private");
-        reservedWords.put("true", "true");
-        reservedWords.put("default", "default");
-        reservedWords.put("import", "import");
-        reservedWords.put("protected", "protected");
-        reservedWords.put("try", "try");
-        reservedWords.put("throws", "throws");
-        reservedWords.put("implements", "implements");
-    }
+    /**
+     * relative paths and links shared by the transformed files
+     */
+    private final HrefCache hrefCache = new HrefCache();
 
     public JavaCodeTransform(PackageManager packageManager, FileManager fileManager) {
         this.packageManager = packageManager;
@@ -297,66 +215,73 @@ public class JavaCodeTransform implements Serializable {
     /**
      * Now different method of seeing if at end of input stream, closes inputs stream at end.
      *
+     * @param state state of the file being transformed
      * @param line String
      * @return filtered line of code
      */
-    private String syntaxHighlight(String line) {
-        return htmlFilter(line);
+    private String syntaxHighlight(TransformState state, String line) {
+        return htmlFilter(state, line);
     }
 
     /**
      * Gets the header attribute of the JavaCodeTransform object
      *
+     * @param state state of the file being transformed
      * @param out the writer where the header is appended to
      */
-    private void appendHeader(PrintWriter out) {
-        String outputEncoding = this.outputEncoding;
+    private void appendHeader(TransformState state, PageWriter out) throws IOException {
+        String outputEncoding = state.outputEncoding;
         if (outputEncoding == null) {
             outputEncoding = "ISO-8859-1";
         }
 
         // header
-        out.println("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" "
+        out.write("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" "
                 + "\"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd\">");
-        out.print("<html xmlns=\"http://www.w3.org/1999/xhtml\" xml:lang=\"");
-        out.print(locale);
-        out.print("\" lang=\"");
-        out.print(locale);
-        out.println("\">");
-        out.print("<head>");
-        out.print("<meta http-equiv=\"content-type\" content=\"text/html; charset=");
-        out.print(outputEncoding);
-        out.println("\" />");
+        out.newLine();
+        out.write("<html xmlns=\"http://www.w3.org/1999/xhtml\" xml:lang=\"");
+        out.write(String.valueOf(state.locale));
+        out.write("\" lang=\"");
+        out.write(String.valueOf(state.locale));
+        out.write("\">");
+        out.newLine();
+        out.write("<head>");
+        out.write("<meta http-equiv=\"content-type\" content=\"text/html; charset=");
+        out.write(outputEncoding);
+        out.write("\" />");
+        out.newLine();
 
         // title ("classname xref")
-        out.print("<title>");
-        try {
-            JavaFile javaFile = fileManager.getFile(this.getCurrentFilename());
+        out.write("<title>");
+        JavaFile javaFile = state.javaFile;
+        if (javaFile != null) {
             // Use the name of the file instead of the class to handle inner classes properly
             if (javaFile.getClassType() != null && javaFile.getClassType().getFilename() != null) {
-                out.print(javaFile.getClassType().getFilename());
+                out.write(javaFile.getClassType().getFilename());
             } else {
-                out.print(javaFile.getFilename());
+                out.write(javaFile.getFilename());
             }
-            out.print(' ');
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            out.println("xref</title>");
+            out.write(' ');
         }
+        out.write("xref</title>");
+        out.newLine();
 
         // stylesheet link
-        out.print("<link type=\"text/css\" rel=\"stylesheet\" href=\"");
-        out.print(this.getPackageRoot());
-        out.print(STYLESHEET_FILENAME);
-        out.println("\" />");
-
-        out.println("</head>");
-        out.println("<body>");
-        out.print(this.getFileOverview());
+        out.write("<link type=\"text/css\" rel=\"stylesheet\" href=\"");
+        out.write(this.getPackageRoot(state));
+        out.write(STYLESHEET_FILENAME);
+        out.write("\" />");
+        out.newLine();
+
+        out.write("</head>");
+        out.newLine();
+        out.write("<body>");
+        out.newLine();
+        out.write(this.getFileOverview(state));
 
         // start code section
-        out.println("<pre>");
+        out.write("<pre>");
+        out.newLine();
     }
 
     /**
@@ -365,60 +290,103 @@ public class JavaCodeTransform implements Serializable {
      * @param out the writer where the header is appended to
      * @param bottom the bottom text
      */
-    private void appendFooter(PrintWriter out, String bottom) {
-        out.println("</pre>");
-        out.println("<hr/>");
-        out.print("<div id=\"footer\">");
-        out.print(bottom);
-        out.println("</div>");
-        out.println("</body>");
-        out.println("</html>");
+    private void appendFooter(PageWriter out, String bottom) throws IOException {
+        out.write("</pre>");
+        out.newLine();
+        out.write("<hr/>");
+        out.newLine();
+        out.write("<div id=\"footer\">");
+        out.write(String.valueOf(bottom));
+        out.write("</div>");
+        out.newLine();
+        out.write("</body>");
+        out.newLine();
+        out.write("</html>");
+        out.newLine();
+    }
+
+    /**
+     * Sets whether a page is only written if its content changed. The page is then compared with the existing file as
+     * it is rendered, and an unchanged file keeps its modification time.
+     *
+     * @param writeIfChanged {@code true} to keep the unchanged files
+     * @since 3.6.1
+     */
+    public void setWriteIfChanged(boolean writeIfChanged) {
+        this.writeIfChanged = writeIfChanged;
+    }
+
+    /**
+     * Sets the list of the generated files the pages are added to as they are written.
+     *
+     * @param checksumManifest the list, {@code null} to not list the pages
+     */
+    void setChecksumManifest(ChecksumManifest checksumManifest) {
+        this.checksumManifest = checksumManifest;
+    }
+
+    /**
+     * Gets the number of pages rendered by this transformer.
+     *
+     * @return the number of pages
+     */
+    int getRenderedCount() {
+        return renderedCount.get();
+    }
+
+    /**
+     * Gets the number of pages written by this transformer, which is lower than the number of pages rendered when the
+     * unchanged pages are kept.
+     *
+     * @return the number of pages
+     */
+    int getWrittenCount() {
+        return writtenCount.get();
     }
 
     /**
      * This is the public method for doing all transforms of code.
      *
-     * @param sourceReader Reader
+     * @param state state of the file being transformed
+     * @param sourceReader Reader, {@code null} if the source of the state is used
      * @param destWriter Writer
-     * @param locale String
-     * @param outputEncoding String
-     * @param javadocLinkDir String
-     * @param revision String
      * @param bottom string
      * @throws IOException
      */
-    private void transform(
-            Reader sourceReader,
-            Writer destWriter,
-            Locale locale,
-            String outputEncoding,
-            Path javadocLinkDir,
-            String revision,
-            String bottom)
+    private void transform(TransformState state, Reader sourceReader, Writer destWriter, String bottom)
             throws IOException {
-        this.locale = locale;
-        this.outputEncoding = outputEncoding;
-        this.javadocLinkDir = javadocLinkDir;
-        this.revision = revision;
-
-        BufferedReader in = new BufferedReader(sourceReader);
-
-        PrintWriter out = new PrintWriter(destWriter);
-
-        String line;
+        PageWriter out = new PageWriter(destWriter);
 
-        appendHeader(out);
+        appendHeader(state, out);
 
-        int linenumber = 1;
-        while ((line = in.readLine()) != null) {
-            if (LINE_NUMBERS) {
-                out.print("<a class=\"jxr_linenumber\" name=\"L" + linenumber + "\" " + "href=\"#L" + linenumber + "\">"
-                        + linenumber + "</a>" + getLineWidth(linenumber));
+        if (engine == Engine.LEXER) {
+            JavaCodeHighlighter highlighter = new JavaCodeHighlighter(state.symbols);
+            if (state.source != null) {
+                highlighter.highlight(state.source, out);
+            } else {
+                highlighter.highlight(sourceReader, out);
             }
+        } else {
+            BufferedReader in = new BufferedReader(sourceReader);
+            String line;
+            int linenumber = 1;
+            while ((line = in.readLine()) != null) {
+                if (LINE_NUMBERS) {
+                    out.write("<a class=\"jxr_linenumber\" name=\"L");
+                    out.writeNumber(linenumber);
+                    out.write("\" href=\"#L");
+                    out.writeNumber(linenumber);
+                    out.write("\">");
+                    out.writeNumber(linenumber);
+                    out.write("</a>");
+                    out.write(getLineWidth(linenumber));
+                }
 
-            out.println(this.syntaxHighlight(line));
+                out.write(this.syntaxHighlight(state, line));
+                out.newLine();
 
-            ++linenumber;
+                ++linenumber;
+            }
         }
 
         appendFooter(out, bottom);
@@ -426,6 +394,27 @@ public class JavaCodeTransform implements Serializable {
         out.flush();
     }
 
+    /**
+     * Sets the engine used to highlight the source code. The {@link Engine#LEXER} engine also enables the source cache
+     * of the {@link FileManager}, so that each file is read and lexed once, when it is parsed, and its tokens are
+     * reused to render it.
+     *
+     * @param engine the engine, {@code null} selects the default {@link Engine#FILTERS}
+     */
+    public void setEngine(Engine engine) {
+        this.engine = engine != null ? engine : Engine.FILTERS;
+        fileManager.setSourceCacheSize(this.engine == Engine.LEXER ? FileManager.DEFAULT_SOURCE_CACHE_SIZE : 0);
+    }
+
+    /**
+     * Gets the engine used to highlight the source code.
+     *
+     * @return the engine
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
     /**
      * This is the public method for doing all transforms of code.
      *
@@ -449,132 +438,217 @@ public class JavaCodeTransform implements Serializable {
             String revision,
             String bottom)
             throws IOException {
-        this.setCurrentFilename(sourcefile);
+        transform(sourcefile, destfile, locale, inputEncoding, outputEncoding, javadocLinkDir, revision, bottom, null);
+    }
+
+    /**
+     * Transforms a file, recording the packages of the qualified names looked up to link them.
+     *
+     * @param sourcefile source file
+     * @param destfile destination file
+     * @param locale locale
+     * @param inputEncoding input encoding
+     * @param outputEncoding output encoding
+     * @param javadocLinkDir relative path to javadocs
+     * @param revision revision of the module
+     * @param bottom bottom text
+     * @param qualifiedPackages receives the package names, {@code null} if they are not recorded
+     * @throws IOException in I/O failures in reading/writing files
+     * @see #getVisiblePackages(Path)
+     */
+    final void transform(
+            Path sourcefile,
+            Path destfile,
+            Locale locale,
+            String inputEncoding,
+            String outputEncoding,
+            Path javadocLinkDir,
+            String revision,
+            String bottom,
+            Set<String> qualifiedPackages)
+            throws IOException {
+        this.revision = revision;
+
+        TransformState state = new TransformState(sourcefile, locale, outputEncoding, javadocLinkDir, revision);
+        resolveSymbols(state);
+        if (state.symbols != null) {
+            state.symbols.recordQualifiedPackages(qualifiedPackages);
+        }
+
+        if (engine == Engine.LEXER) {
+            // the file has probably been lexed already when it was parsed
+            state.source = fileManager.takeSource(sourcefile, inputEncoding);
+        }
 
         // make sure that the parent directories exist...
         Files.createDirectories(destfile.getParent());
 
-        try (Reader fr = getReader(sourcefile, inputEncoding);
-                Writer fw = getWriter(destfile, outputEncoding)) {
-            transform(fr, fw, locale, outputEncoding, javadocLinkDir, revision, bottom);
+        ChangedFileOutputStream changed = writeIfChanged ? new ChangedFileOutputStream(destfile) : null;
+        ChecksumManifest checksums = checksumManifest;
+        try (OutputStream file = changed != null ? changed : Files.newOutputStream(destfile);
+                OutputStream out = checksums != null ? checksums.wrap(destfile, file) : file;
+                Writer fw = getWriter(out, outputEncoding);
+                Reader fr = state.source == null ? getReader(sourcefile, inputEncoding) : null) {
+            transform(state, fr, fw, bottom);
+            fw.flush();
+            if (changed != null) {
+                changed.complete();
+            }
         } catch (RuntimeException e) {
             System.out.println("Unable to processPath " + sourcefile + " => " + destfile);
             throw e;
         }
-    }
-
-    private Writer getWriter(Path destfile, String outputEncoding) throws IOException {
-        Writer fw;
-        if (outputEncoding != null) {
-            fw = new OutputStreamWriter(new FileOutputStream(destfile.toFile()), outputEncoding);
-        } else {
-            fw = new FileWriter(destfile.toFile());
+        renderedCount.incrementAndGet();
+        if (changed == null || changed.isWritten()) {
+            writtenCount.incrementAndGet();
         }
-        return fw;
     }
 
-    private Reader getReader(Path sourcefile, String inputEncoding) throws IOException {
-        Reader fr;
-        if (inputEncoding != null) {
-            fr = new InputStreamReader(new FileInputStream(sourcefile.toFile()), inputEncoding);
-        } else {
-            fr = new FileReader(sourcefile.toFile());
+    /**
+     * Gets the packages whose classes the links of a file depend on, apart from the packages of qualified names.
+     *
+     * @param sourcefile source file
+     * @return the package names, empty if the file couldn't be parsed
+     */
+    Set<String> getVisiblePackages(Path sourcefile) {
+        try {
+            return SymbolTable.getVisiblePackages(fileManager.getFile(sourcefile));
+        } catch (IOException e) {
+            return Collections.emptySet();
         }
-        return fr;
     }
 
     /**
-     * Gets the current file name.
+     * Passes the lines of a file through the chain of filters of the {@link Engine#FILTERS} engine, entering it at the
+     * given stage. As each stage passes its output down to the next ones, the cost of a single stage is the difference
+     * with the cost from the next stage. This is meant for the benchmarks.
      *
-     * @return path of file
+     * @param sourcefile the file the lines come from
+     * @param stage the first stage applied to each line
+     * @param lines the lines, in order
+     * @return the filtered lines
      */
-    private Path getCurrentFilename() {
-        return this.currentFilename;
+    String[] filter(Path sourcefile, FilterStage stage, String[] lines) {
+        TransformState state = new TransformState(sourcefile, Locale.ENGLISH, null, null, null);
+        resolveSymbols(state);
+
+        String[] filtered = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            filtered[i] = filter(state, stage, lines[i]);
+        }
+        return filtered;
+    }
+
+    private String filter(TransformState state, FilterStage stage, String line) {
+        switch (stage) {
+            case HTML:
+                return htmlFilter(state, line);
+            case ONGOING_MULTI_LINE_COMMENT:
+                return ongoingMultiLineCommentFilter(state, line);
+            case INLINE_COMMENT:
+                return inlineCommentFilter(state, line);
+            case BEGIN_MULTI_LINE_COMMENT:
+                return beginMultiLineCommentFilter(state, line);
+            case STRING:
+                return stringFilter(state, line);
+            case KEYWORD:
+                return keywordFilter(state, line);
+            case URI:
+                return uriFilter(state, line);
+            case JXR:
+                return jxrFilter(state, line);
+            case IMPORT:
+                return importFilter(state, line);
+            default:
+                throw new IllegalArgumentException("Unknown stage " + stage);
+        }
     }
 
     /**
-     * Sets the current file name.
+     * Looks up the parsed meta information of the current file and the classes it can reference.
      *
-     * @param filename file name
+     * @param state state of the file being transformed
      */
-    private void setCurrentFilename(Path filename) {
-        this.currentFilename = filename;
+    private void resolveSymbols(TransformState state) {
+        try {
+            state.javaFile = fileManager.getFile(state.filename);
+            state.symbols = new SymbolTable(packageManager, state.javaFile, getPackageRoot(state), hrefCache);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Writer getWriter(OutputStream out, String outputEncoding) throws IOException {
+        Writer fw;
+        if (outputEncoding != null) {
+            fw = new OutputStreamWriter(out, outputEncoding);
+        } else {
+            fw = new OutputStreamWriter(out);
+        }
+        return fw;
+    }
+
+    private Reader getReader(Path sourcefile, String inputEncoding) throws IOException {
+        return SourceReader.open(sourcefile, inputEncoding);
     }
 
     /**
      * From the current file, determine the package root based on the current path.
      *
+     * @param state state of the file being transformed
      * @return package root
      */
-    private String getPackageRoot() {
-        StringBuilder buff = new StringBuilder();
+    private String getPackageRoot(TransformState state) {
+        JavaFile jf = state.javaFile;
 
-        JavaFile jf;
-
-        try {
-            jf = fileManager.getFile(this.getCurrentFilename());
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (jf == null) {
             return null;
         }
 
-        String current = jf.getPackageType().getName();
-
-        int count = this.getPackageCount(current);
-
-        for (int i = 0; i < count; ++i) {
-            buff.append("../");
+        if (state.packageRoot == null) {
+            state.packageRoot = hrefCache.getPackageRoot(jf.getPackageType().getName());
         }
 
-        return buff.toString();
+        return state.packageRoot;
     }
 
     /**
      * Given a line of text, search for URIs and make href's out of them.
      *
+     * @param state state of the file being transformed
      * @param line String
      * @return href
      */
-    private String uriFilter(String line) {
-        for (String scheme : VALID_URI_SCHEMES) {
-            int index = line.indexOf(scheme);
-
-            if (index != -1) {
-                int start = index;
-                int end = -1;
-
-                for (int j = start; j < line.length(); ++j) {
-                    char current = line.charAt(j);
-
-                    if (!Character.isLetterOrDigit(current) && isInvalidURICharacter(current)) {
-                        end = j;
-                        break;
-                    }
-
-                    end = j;
-                }
-
-                // now you should have the full URI so you can replace this
-                // in the current buffer
-
-                if (end != -1) {
-                    String uri = (end + 1 == line.length()) ? line.substring(start) : line.substring(start, end);
-
-                    line = line.replace(uri, "<a href=\"" + uri + "\" target=\"alexandria_uri\">" + uri + "</a>");
+    private String uriFilter(TransformState state, String line) {
+        StringBuilder buf = null;
+        int from = 0;
+        for (int i = 0; i < line.length(); i++) {
+            int end = UriScanner.escapedUriEnd(line, i, line.length());
+            if (end > i) {
+                if (buf == null) {
+                    buf = new StringBuilder(line.length() + 64);
                 }
+                buf.append(line, from, i).append("<a href=\"");
+                buf.append(line, i, end).append("\" target=\"alexandria_uri\">");
+                buf.append(line, i, end).append("</a>");
+                from = end;
+                i = end - 1;
             }
         }
+        if (buf != null) {
+            line = buf.append(line, from, line.length()).toString();
+        }
 
         // if we are in a multiline comment we should not call JXR here.
-        if (!inMultiLineComment && !inJavadocComment) {
-            return jxrFilter(line);
+        if (!state.inMultiLineComment && !state.inJavadocComment) {
+            return jxrFilter(state, line);
         }
 
         return line;
     }
 
     /**
-     * The current revision of the module.
+     * The revision of the module most recently passed to {@code transform}.
      *
      * @return revision
      */
@@ -585,54 +659,17 @@ public class JavaCodeTransform implements Serializable {
     /**
      * Cross Reference the given line with JXR returning the new content.
      *
+     * @param state state of the file being transformed
      * @param line line
-     * @param packageName String
-     * @param classType ClassType
+     * @param links the classes to link to, by name
      * @return cross-referenced line
      */
-    private String xrLine(String line, String packageName, ClassType classType) {
-        StringBuilder buff = new StringBuilder(line);
-
-        String link;
-        String find;
-        String href;
-
-        if (classType != null) {
-            href = this.getHREF(packageName, classType);
-            find = classType.getName();
-
-            // build out what the link would be.
-            link = "<a name=\"" + find + "\" href=\"" + href + "\">" + find + "</a>";
-        } else {
-            href = this.getHREF(packageName);
-            find = packageName;
-
-            // build out what the link would be.
-            link = "<a href=\"" + href + "\">" + find + "</a>";
-        }
-
-        // use the SimpleWordTokenizer to find all entries
-        // that match word. Then replace these with the link
-
-        // now replace the word in the buffer with the link
-
-        String replace = link;
-        List<StringEntry> tokens = SimpleWordTokenizer.tokenize(buff.toString(), find);
-
-        // JXR-141: If there are more than 1 tokens to be replaced,
-        // then the start+end values are out of order during the
-        // buff.replace.
-        // Reversing the list solves it
-        Collections.reverse(tokens);
-
-        for (StringEntry token : tokens) {
-            int start = token.getIndex();
-            int end = token.getIndex() + find.length();
-
-            buff.replace(start, end, replace);
-        }
-
-        return buff.toString();
+    private String xrLine(TransformState state, String line, LinkCollector links) {
+        // the words matching the name of a class are replaced with its link in a single forward pass, the first
+        // class found in the line winning when several have the same name
+        LinkWriter writer = state.linkWriter;
+        writer.write(line, links);
+        return writer.toString();
     }
 
     // ----------------------------------------------------------------------
@@ -642,50 +679,46 @@ public class JavaCodeTransform implements Serializable {
     /**
      * Filter HTML tags into more benign text.
      *
+     * @param state state of the file being transformed
      * @param line String
      * @return HTML-encoded line
      */
-    private String htmlFilter(String line) {
+    private String htmlFilter(TransformState state, String line) {
         if (line == null || line.equals("")) {
             return "";
         }
-        line = line.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\\\\", "&#92;&#92;")
-                .replace("\\\"", "\\&quot;")
-                .replace("'\"'", "'&quot;'");
-        return ongoingMultiLineCommentFilter(line);
+        return ongoingMultiLineCommentFilter(state, HtmlEscaper.escape(line, state.escaped));
     }
 
     /**
      * Handle ongoing multi-line comments, detecting ends if present.<br>
-     * State is maintained in private boolean members,
+     * State is maintained in boolean members of the transform state,
      * one each for javadoc and (normal) multi-line comments.
      *
+     * @param state state of the file being transformed
      * @param line line
      * @return processed line
      */
-    private String ongoingMultiLineCommentFilter(String line) {
+    private String ongoingMultiLineCommentFilter(TransformState state, String line) {
         if (line == null || line.equals("")) {
             return "";
         }
-        final String[] tags = inJavadocComment
+        final String[] tags = state.inJavadocComment
                 ? new String[] {JAVADOC_COMMENT_START, JAVADOC_COMMENT_END}
-                : inMultiLineComment ? new String[] {COMMENT_START, COMMENT_END} : null;
+                : state.inMultiLineComment ? new String[] {COMMENT_START, COMMENT_END} : null;
 
         if (tags == null) {
             // pass the line down to the next filter for processing.
-            return inlineCommentFilter(line);
+            return inlineCommentFilter(state, line);
         }
 
         int index = line.indexOf("*/");
         // only filter the portion without the end-of-comment,
         // since * and / seem to be valid URI characters
-        String comment = uriFilter(index < 0 ? line : line.substring(0, index));
+        String comment = uriFilter(state, index < 0 ? line : line.substring(0, index));
         if (index >= 0) {
-            inJavadocComment = false;
-            inMultiLineComment = false;
+            state.inJavadocComment = false;
+            state.inMultiLineComment = false;
         }
         StringBuilder buf = new StringBuilder(tags[0]).append(comment);
 
@@ -695,7 +728,7 @@ public class JavaCodeTransform implements Serializable {
         buf.append(tags[1]);
 
         if (index >= 0 && line.length() > index + 2) {
-            buf.append(inlineCommentFilter(line.substring(index + 2)));
+            buf.append(inlineCommentFilter(state, line.substring(index + 2)));
         }
         return buf.toString();
     }
@@ -706,10 +739,11 @@ public class JavaCodeTransform implements Serializable {
      * ignore the problem, or implement a function called something like isInsideString(line, index) where index points
      * to some point in the line that we need to check... started doing this function below.
      *
+     * @param state state of the file being transformed
      * @param line line
      * @return processed line
      */
-    private String inlineCommentFilter(String line) {
+    private String inlineCommentFilter(TransformState state, String line) {
         // assert !inJavadocComment;
         // assert !inMultiLineComment;
 
@@ -718,23 +752,24 @@ public class JavaCodeTransform implements Serializable {
         }
         int index = line.indexOf("//");
         if ((index >= 0) && !isInsideString(line, index)) {
-            return beginMultiLineCommentFilter(line.substring(0, index))
+            return beginMultiLineCommentFilter(state, line.substring(0, index))
                     + COMMENT_START
                     + line.substring(index)
                     + COMMENT_END;
         }
 
-        return beginMultiLineCommentFilter(line);
+        return beginMultiLineCommentFilter(state, line);
     }
 
     /**
      * Detect and handle the start of multiLine comments. State is maintained in private boolean members one each for
      * javadoc and (normal) multiline comments.
      *
+     * @param state state of the file being transformed
      * @param line line
      * @return processed line
      */
-    private String beginMultiLineCommentFilter(String line) {
+    private String beginMultiLineCommentFilter(TransformState state, String line) {
         // assert !inJavadocComment;
         // assert !inMultiLineComment;
 
@@ -747,62 +782,59 @@ public class JavaCodeTransform implements Serializable {
         if ((index > -1) && !isInsideString(line, index)) {
             String fromIndex = line.substring(index);
             if (fromIndex.startsWith("/**") && !(fromIndex.startsWith("/**/"))) {
-                inJavadocComment = true;
+                state.inJavadocComment = true;
             } else {
-                inMultiLineComment = true;
+                state.inMultiLineComment = true;
             }
             // Return result of other filters + everything after the start
             // of the multiline comment. We need to pass the through the
             // to the ongoing multiLineComment filter again in case the comment
             // ends on the same line.
-            return stringFilter(line.substring(0, index)) + ongoingMultiLineCommentFilter(fromIndex);
+            return stringFilter(state, line.substring(0, index)) + ongoingMultiLineCommentFilter(state, fromIndex);
         }
 
         // Otherwise, no useful multi-line comment information was found so
         // pass the line down to the next filter for processesing.
         else {
-            return stringFilter(line);
+            return stringFilter(state, line);
         }
     }
 
     /**
      * Filters strings from a line of text and formats them properly.
      *
+     * @param state state of the file being transformed
      * @param line line
      * @return processed line
      */
-    private String stringFilter(String line) {
+    private String stringFilter(TransformState state, String line) {
         if (line == null || line.equals("")) {
             return "";
         }
-        StringBuilder buf = new StringBuilder();
-        if (line.indexOf('"') <= -1) {
-            return keywordFilter(line);
+        int quote = line.indexOf('"');
+        if (quote < 0) {
+            return keywordFilter(state, line);
         }
-        int start = 0;
-        int startStringIndex = -1;
-        int endStringIndex = -1;
-        int tempIndex;
-        // Keep moving through String characters until we want to stop...
-        while ((tempIndex = line.indexOf('"')) > -1) {
-            // We found the beginning of a string
-            if (startStringIndex == -1) {
-                startStringIndex = 0;
-                buf.append(stringFilter(line.substring(start, tempIndex)));
+        // the quotes escaped by the htmlFilter are gone, each one left starts or ends a string
+        StringBuilder buf = new StringBuilder(line.length() + 64);
+        int from = 0;
+        boolean inString = false;
+        while (quote >= 0) {
+            if (!inString) {
+                // We found the beginning of a string
+                buf.append(keywordFilter(state, line.substring(from, quote)));
                 buf.append(STRING_START).append('"');
-                line = line.substring(tempIndex + 1);
-            }
-            // Must be at the end
-            else {
-                startStringIndex = -1;
-                endStringIndex = tempIndex;
-                buf.append(line, 0, endStringIndex + 1);
+            } else {
+                // Must be at the end
+                buf.append(line, from, quote + 1);
                 buf.append(STRING_END);
-                line = line.substring(endStringIndex + 1);
             }
+            inString = !inString;
+            from = quote + 1;
+            quote = line.indexOf('"', from);
         }
 
-        buf.append(keywordFilter(line));
+        buf.append(keywordFilter(state, line.substring(from)));
 
         return buf.toString();
     }
@@ -810,74 +842,70 @@ public class JavaCodeTransform implements Serializable {
     /**
      * Filters keywords from a line of text and formats them properly.
      *
+     * @param state state of the file being transformed
      * @param line line
      * @return processed line
      */
-    private String keywordFilter(String line) {
-        final String classKeyword = "class";
-
+    private String keywordFilter(TransformState state, String line) {
         if (line == null || line.equals("")) {
             return "";
         }
-        StringBuilder buf = new StringBuilder();
+        StringBuilder buf = state.keywords;
+        buf.setLength(0);
+        int length = line.length();
+        int from = 0;
         int i = 0;
-        char ch;
-        StringBuilder temp = new StringBuilder();
-        while (i < line.length()) {
-            temp.setLength(0);
-            ch = line.charAt(i);
-            while (i < line.length() && ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z'))) {
-                temp.append(ch);
+        while (i < length) {
+            int start = i;
+            while (i < length && isAsciiLetter(line.charAt(i))) {
                 i++;
-                if (i < line.length()) {
-                    ch = line.charAt(i);
-                }
             }
-            String tempString = temp.toString();
-
-            // Special handling of css style class definitions
-            if (classKeyword.equals(tempString) && ch == '=') {
-                i++;
-            } else if (reservedWords.containsKey(tempString)) {
-                line = line.substring(0, i - tempString.length())
-                        + RESERVED_WORD_START
-                        + tempString
-                        + RESERVED_WORD_END
-                        + line.substring(i);
-                i += (RESERVED_WORD_START.length() + RESERVED_WORD_END.length());
-            } else {
+            if (start == i) {
                 i++;
+            } else if (JavaKeywords.isKeyword(line, start, i) && !isClassAttribute(line, start, i)) {
+                buf.append(line, from, start)
+                        .append(RESERVED_WORD_START)
+                        .append(line, start, i)
+                        .append(RESERVED_WORD_END);
+                from = i;
             }
         }
-        buf.append(line);
+        if (from > 0) {
+            buf.append(line, from, length);
+            line = buf.toString();
+        }
+
+        return uriFilter(state, line);
+    }
 
-        return uriFilter(buf.toString());
+    private static boolean isAsciiLetter(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
     }
 
     /**
-     * Checks to see if some position in a line is between String start and ending characters. Not yet used in code or
-     * fully working :)
+     * Special handling of css style class definitions.
+     */
+    private static boolean isClassAttribute(String line, int start, int end) {
+        return end - start == 5 && end < line.length() && line.charAt(end) == '=' && line.startsWith("class", start);
+    }
+
+    /**
+     * Checks to see if some position in a line is between String start and ending characters, which is the case when
+     * there is an odd number of quotes both before and after it. The quotes escaped by the htmlFilter are not counted.
      *
      * @param line String
      * @param position int
      * @return boolean
      */
     private boolean isInsideString(String line, int position) {
-        if (line.indexOf('"') < 0) {
-            return false;
-        }
-        int index;
-        String left = line.substring(0, position);
-        String right = line.substring(position);
         int leftCount = 0;
         int rightCount = 0;
-        while ((index = left.indexOf('"')) > -1) {
-            leftCount++;
-            left = left.substring(index + 1);
-        }
-        while ((index = right.indexOf('"')) > -1) {
-            rightCount++;
-            right = right.substring(index + 1);
+        for (int i = line.indexOf('"'); i >= 0; i = line.indexOf('"', i + 1)) {
+            if (i < position) {
+                leftCount++;
+            } else {
+                rightCount++;
+            }
         }
         return (rightCount % 2 != 0 && leftCount % 2 != 0);
     }
@@ -902,22 +930,21 @@ public class JavaCodeTransform implements Serializable {
     /**
      * Gets an overview header for this file.
      *
+     * @param state state of the file being transformed
      * @return overview header
      */
-    private String getFileOverview() {
+    private String getFileOverview(TransformState state) {
         StringBuilder overview = new StringBuilder();
 
         // only add the header if javadocs are present
-        if (javadocLinkDir != null) {
+        if (state.javadocLinkDir != null) {
             overview.append("<div id=\"overview\">");
             // get the URI to get Javadoc info.
             Path javadocURI;
 
-            try {
-                JavaFile jf = fileManager.getFile(this.getCurrentFilename());
-
-                javadocURI =
-                        javadocLinkDir.resolve(jf.getPackageType().getName().replace('.', '/'));
+            JavaFile jf = state.javaFile;
+            if (jf != null) {
+                javadocURI = state.javadocLinkDir.resolve(jf.getPackageType().getName().replace('.', '/'));
                 // Use the name of the file instead of the class to handle inner classes properly
                 String fileName;
                 if (jf.getClassType() != null && jf.getClassType().getFilename() != null) {
@@ -931,8 +958,6 @@ public class JavaCodeTransform implements Serializable {
 
                 // get the generation time...
                 overview.append(javadocHREF);
-            } catch (IOException e) {
-                e.printStackTrace();
             }
 
             overview.append("</div>");
@@ -960,180 +985,54 @@ public class JavaCodeTransform implements Serializable {
     /**
      * Handles finding classes based on the current filename and then makes HREFs for you to link to them with.
      *
+     * @param state state of the file being transformed
      * @param line line
      * @return processed line
      */
-    private String jxrFilter(String line) {
-        JavaFile jf;
-
-        try {
-            // if the current file isn't set then just return
-            if (this.getCurrentFilename() == null) {
-                return line;
-            }
+    private String jxrFilter(TransformState state, String line) {
+        JavaFile jf = state.javaFile;
 
-            jf = fileManager.getFile(this.getCurrentFilename());
-        } catch (IOException e) {
-            e.printStackTrace();
+        // if the current file couldn't be parsed then just return
+        if (jf == null) {
             return line;
         }
 
-        Set<String> packages = new HashSet<>();
-
-        // get the imported packages
-        for (ImportType importType : jf.getImportTypes()) {
-            packages.add(importType.getPackage());
+        if (state.links == null) {
+            state.links = new LinkCollector(state.symbols);
         }
-
-        // add the current package.
-        packages.add(jf.getPackageType().getName());
-
-        List<StringEntry> words = SimpleWordTokenizer.tokenize(line);
+        LinkCollector links = state.links;
 
         // go through each word and then match them to the correct class if necessary.
-        for (StringEntry word : words) {
-            for (String pkg : packages) {
-                // get the package from the PackageManager because this will hold
-                // the version with the classes also.
-
-                PackageType currentImport = packageManager.getPackageType(pkg);
-
-                // the package here might in fact be null because it wasn't parsed out
-                // this might be something that is either not included or is part
-                // of another package and wasn't parsed out.
-
-                if (currentImport == null) {
-                    continue;
-                }
-
-                // see if the current word is within the package
-
-                // at this point the word could be a fully qualified package name
-                // (FQPN) or an imported package name.
-
-                String wordName = word.toString();
-
-                if (wordName.indexOf('.') != -1) {
-                    // if there is a "." in the string then we have to assume
-                    // it is a package.
+        links.clear();
+        SimpleWordTokenizer.tokenize(line, links);
 
-                    String fqpnPackage = wordName.substring(0, wordName.lastIndexOf('.'));
-                    String fqpnClass = wordName.substring(wordName.lastIndexOf('.') + 1);
-
-                    // note. since this is a reference to a full package then
-                    // it doesn't have to be explicitly imported so this information
-                    // is useless. Instead just see if it was parsed out.
-
-                    PackageType pt = packageManager.getPackageType(fqpnPackage);
-
-                    if (pt != null) {
-                        ClassType ct = pt.getClassType(fqpnClass);
-
-                        if (ct != null) {
-                            // OK. the user specified a full package to be imported
-                            // that is in the package manager so it is time to
-                            // link to it.
-
-                            line = xrLine(line, pt.getName(), ct);
-                        }
-                    }
-
-                    if (fqpnPackage.equals(currentImport.getName()) && currentImport.getClassType(fqpnClass) != null) {
-                        // then the package we are currently in is the one specified in the string
-                        // and the import class is correct.
-                        line = xrLine(line, pkg, currentImport.getClassType(fqpnClass));
-                    }
-                } else if (currentImport.getClassType(wordName) != null) {
-                    line = xrLine(line, pkg, currentImport.getClassType(wordName));
-                }
-            }
+        if (links.size() > 0) {
+            line = xrLine(state, line, links);
         }
 
-        return importFilter(line);
-    }
-
-    /**
-     * Given the current package, get an HREF to the package and class given
-     *
-     * @param dest destination
-     * @param jc class type
-     * @return href
-     */
-    private String getHREF(String dest, ClassType jc) {
-        StringBuilder href = new StringBuilder();
-
-        // find out how to go back to the root
-        href.append(this.getPackageRoot());
-
-        // now find out how to get to the dest package
-        dest = dest.replace(".*", "").replace('.', '/');
-
-        href.append(dest);
-
-        // Now append filename.html
-        if (jc != null) {
-            href.append('/');
-            href.append(jc.getFilename());
-            href.append(".html");
-            href.append('#');
-            href.append(jc.getName());
-        }
-
-        return href.toString();
+        return importFilter(state, line);
     }
 
     /**
      * Based on the destination package, get the HREF.
      *
+     * @param state state of the file being transformed
      * @param dest destination
      * @return href
      */
-    private String getHREF(String dest) {
-        return getHREF(dest, null);
-    }
-
-    /**
-     * <p>
-     * Given the name of a package... get the number of subdirectories/subpackages there would be.
-     * </p>
-     * <p>
-     * EX: {@code org.apache.maven == 3}
-     * </p>
-     *
-     * @param packageName String
-     * @return int
-     */
-    private int getPackageCount(String packageName) {
-        if (packageName == null) {
-            return 0;
-        }
-
-        int count = 0;
-        int index = 0;
-
-        while (true) {
-            index = packageName.indexOf('.', index);
-
-            if (index == -1) {
-                break;
-            }
-            ++index;
-            ++count;
-        }
-
-        // need to increment this by one
-        ++count;
-
-        return count;
+    private String getHREF(TransformState state, String dest) {
+        // find out how to go back to the root, then how to get to the dest package
+        return this.getPackageRoot(state) + hrefCache.getPackageDir(dest);
     }
 
     /**
      * Parse out the current link and look for package/import statements and then create HREFs for them
      *
+     * @param state state of the file being transformed
      * @param line line
      * @return processed line
      */
-    private String importFilter(String line) {
+    private String importFilter(TransformState state, String line) {
         int start = -1;
 
         /*
@@ -1186,7 +1085,7 @@ public class JavaCodeTransform implements Serializable {
             }
 
             pkg = pkg.replace(";", "");
-            String pkgHREF = getHREF(pkg);
+            String pkgHREF = getHREF(state, pkg);
             // if this package is within the PackageManager then you can create an HREF for it.
 
             if (packageManager.getPackageType(pkg) != null || isPackage) {
@@ -1205,18 +1104,216 @@ public class JavaCodeTransform implements Serializable {
     }
 
     /**
-     * if the given char is not one of the following in VALID_URI_CHARS then return true
-     *
-     * @param c char to check against VALID_URI_CHARS list
-     * @return {@code true} if c is a valid URI char
+     * The engines that can highlight the source code.
      */
-    private boolean isInvalidURICharacter(char c) {
-        for (char validUriChar : VALID_URI_CHARS) {
-            if (validUriChar == c) {
-                return false;
+    public enum Engine {
+        /**
+         * Passes each line through the chain of filters described above.
+         */
+        FILTERS,
+
+        /**
+         * Uses a single-pass lexer that classifies each character once and writes the HTML directly to the output.
+         * The files are parsed like with {@link #FILTERS}, so the index pages and the links to packages and classes
+         * are the same. The source pages only differ where the filters get a word wrong: they highlight a keyword
+         * that starts a longer identifier, such as {@code char} in {@code char2} or {@code this} in {@code this_in},
+         * don't link the classes of a line that also holds a block comment, and take the delimiters of a text block
+         * for quotes, so they highlight the keywords and link the classes inside it, which the lexer renders as a
+         * string.
+         */
+        LEXER
+    }
+
+    /**
+     * The stages of the {@link Engine#FILTERS} engine, in the order a line goes through them.
+     */
+    enum FilterStage {
+        HTML,
+        ONGOING_MULTI_LINE_COMMENT,
+        INLINE_COMMENT,
+        BEGIN_MULTI_LINE_COMMENT,
+        STRING,
+        KEYWORD,
+        URI,
+        JXR,
+        IMPORT
+    }
+
+    /**
+     * Holds the state of a single file transformation, so that several files can be transformed concurrently by the
+     * same {@code JavaCodeTransform}.
+     */
+    private static final class TransformState {
+        /**
+         * File name that is currently being processed.
+         */
+        private final Path filename;
+
+        /**
+         * The wanted locale
+         */
+        private final Locale locale;
+
+        /**
+         * The output encoding
+         */
+        private final String outputEncoding;
+
+        /**
+         * Relative path to javadocs, suitable for hyperlinking.
+         */
+        private final Path javadocLinkDir;
+
+        /**
+         * Revision of the currently transformed document.
+         */
+        private final String revision;
+
+        /**
+         * Parsed meta information of the current file, or {@code null} if it couldn't be parsed.
+         */
+        private JavaFile javaFile;
+
+        /**
+         * Relative path from the current file to the root of the cross-reference, computed on first use.
+         */
+        private String packageRoot;
+
+        /**
+         * Lexed content of the current file, or {@code null} if it has to be read.
+         */
+        private JavaSource source;
+
+        /**
+         * Buffer the lines are escaped in.
+         */
+        private final StringBuilder escaped = new StringBuilder();
+
+        /**
+         * Buffer the reserved words of a line are highlighted in.
+         */
+        private final StringBuilder keywords = new StringBuilder();
+
+        /**
+         * Resolves the classes referenced in the current file, or {@code null} if it couldn't be parsed.
+         */
+        private SymbolTable symbols;
+
+        /**
+         * Finds the classes referenced in a line, created on first use.
+         */
+        private LinkCollector links;
+
+        /**
+         * Writes the links of a line.
+         */
+        private final LinkWriter linkWriter = new LinkWriter();
+
+        /**
+         * Flag set to true when a multi-line comment is started.
+         */
+        private boolean inMultiLineComment = false;
+
+        /**
+         * Flag set to true when a javadoc comment is started.
+         */
+        private boolean inJavadocComment = false;
+
+        TransformState(Path filename, Locale locale, String outputEncoding, Path javadocLinkDir, String revision) {
+            this.filename = filename;
+            this.locale = locale;
+            this.outputEncoding = outputEncoding;
+            this.javadocLinkDir = javadocLinkDir;
+            this.revision = revision;
+        }
+    }
+
+    /**
+     * Collects the classes to link for the words of a line, looking up the words without creating strings for them.
+     * The first class found with a given name is the one linked for that name.
+     */
+    private static final class LinkCollector implements SimpleWordTokenizer.WordHandler {
+        private final SymbolTable symbols;
+
+        private final NameTable<SymbolTable.Symbol> links = new NameTable<>();
+
+        LinkCollector(SymbolTable symbols) {
+            this.symbols = symbols;
+        }
+
+        @Override
+        public void word(CharSequence text, int start, int end) {
+            if (symbols.isEmpty()) {
+                return;
             }
+
+            SymbolTable.Symbol symbol;
+            int dot = lastIndexOf(text, start, end, '.');
+            if (dot != -1) {
+                // if there is a "." in the word then we have to assume it is a fully qualified class name
+                symbol = symbols.resolveQualified(text, start, dot, end);
+            } else {
+                symbol = symbols.resolve(text, start, end);
+            }
+
+            // all the occurrences of a class in the line are linked at once
+            if (symbol != null && links.get(symbol.getName()) == null) {
+                links.put(symbol.getName(), symbol);
+            }
+        }
+
+        void clear() {
+            links.clear();
+        }
+
+        int size() {
+            return links.size();
         }
 
-        return true;
+        SymbolTable.Symbol get(CharSequence text, int start, int end) {
+            return links.get(text, start, end);
+        }
+
+        private static int lastIndexOf(CharSequence text, int start, int end, char c) {
+            for (int i = end - 1; i >= start; i--) {
+                if (text.charAt(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Copies a line, replacing the words that are the name of a collected class with its link.
+     */
+    private static final class LinkWriter implements SimpleWordTokenizer.WordHandler {
+        private final StringBuilder buff = new StringBuilder();
+
+        private LinkCollector links;
+
+        private int from;
+
+        void write(String line, LinkCollector links) {
+            this.links = links;
+            this.from = 0;
+            buff.setLength(0);
+            SimpleWordTokenizer.tokenize(line, this);
+            buff.append(line, from, line.length());
+        }
+
+        @Override
+        public void word(CharSequence text, int start, int end) {
+            SymbolTable.Symbol symbol = links.get(text, start, end);
+            if (symbol != null) {
+                buff.append(text, from, start).append(symbol.getLink());
+                from = end;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return buff.toString();
+        }
     }
 }
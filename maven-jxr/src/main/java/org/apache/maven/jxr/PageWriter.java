@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffers the HTML of a page in a fixed array of characters, which is handed to the underlying writer when it is
+ * full. Unlike {@link java.io.PrintWriter} and {@link java.io.BufferedWriter}, it takes no lock, and numbers are
+ * written without creating strings, so the cost of writing a page doesn't depend on how it is split into calls. An
+ * instance is only used by one thread.
+ */
+final class PageWriter extends Writer {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+
+    private final char[] buf = new char[BUFFER_SIZE];
+
+    private int count;
+
+    /**
+     * @param out the writer the characters are passed to, usually encoding them
+     */
+    PageWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (count == buf.length) {
+            flushBuffer();
+        }
+        buf[count++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (len >= buf.length) {
+            flushBuffer();
+            out.write(cbuf, off, len);
+            return;
+        }
+        if (len > buf.length - count) {
+            flushBuffer();
+        }
+        System.arraycopy(cbuf, off, buf, count, len);
+        count += len;
+    }
+
+    @Override
+    public void write(String str) throws IOException {
+        write(str, 0, str.length());
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buf.length) {
+                flushBuffer();
+            }
+            int n = Math.min(len, buf.length - count);
+            str.getChars(off, off + n, buf, count);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public PageWriter append(CharSequence csq) throws IOException {
+        String str = String.valueOf(csq);
+        write(str, 0, str.length());
+        return this;
+    }
+
+    /**
+     * Writes the decimal digits of a non-negative number.
+     *
+     * @param n the number
+     * @throws IOException on I/O error
+     */
+    void writeNumber(int n) throws IOException {
+        int digits = 1;
+        for (int i = n; i >= 10; i /= 10) {
+            digits++;
+        }
+        if (digits > buf.length - count) {
+            flushBuffer();
+        }
+        count += digits;
+        for (int i = count - 1; i >= count - digits; i--) {
+            buf[i] = (char) ('0' + n % 10);
+            n /= 10;
+        }
+    }
+
+    /**
+     * Writes the line separator of the platform, as {@link java.io.PrintWriter#println()} does.
+     *
+     * @throws IOException on I/O error
+     */
+    void newLine() throws IOException {
+        write(LINE_SEPARATOR, 0, LINE_SEPARATOR.length());
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.maven.jxr.pacman.ClassType;
+import org.apache.maven.jxr.pacman.ImportType;
+import org.apache.maven.jxr.pacman.JavaFile;
+import org.apache.maven.jxr.pacman.PackageManager;
+import org.apache.maven.jxr.pacman.PackageType;
+import org.apache.maven.jxr.util.NameTable;
+
+/**
+ * Resolves the class names referenced in a single file to the pages they link to. The classes of the packages visible
+ * from the file, that is the imported packages (including {@code java.lang}) and the package of the file, are
+ * resolved once when the table is created, so that a simple name is resolved by a single lookup of its characters.
+ */
+final class SymbolTable {
+    /**
+     * A class resolved from the file, with its link.
+     */
+    static final class Symbol {
+        private final String name;
+
+        private final String href;
+
+        private final String link;
+
+        Symbol(String name, String href) {
+            this.name = name;
+            this.href = href;
+            this.link = "<a name=\"" + name + "\" href=\"" + href + "\">" + name + "</a>";
+        }
+
+        /**
+         * @return the name of the class, relative to its package
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return the relative link to the page of the class
+         */
+        String getHref() {
+            return href;
+        }
+
+        /**
+         * @return the HTML anchor of the class
+         */
+        String getLink() {
+            return link;
+        }
+    }
+
+    private final String packageRoot;
+
+    private final HrefCache hrefCache;
+
+    /**
+     * Whether some of the visible packages are known.
+     */
+    private boolean knownPackages;
+
+    /**
+     * The classes of the visible packages, by simple name.
+     */
+    private final NameTable<Symbol> visibleClasses = new NameTable<>();
+
+    /**
+     * All known packages, for fully qualified names.
+     */
+    private final NameTable<PackageType> packageTypes = new NameTable<>();
+
+    /**
+     * The fully qualified names resolved so far.
+     */
+    private final NameTable<Symbol> qualifiedClasses = new NameTable<>();
+
+    /**
+     * Receives the packages of the qualified names looked up, or {@code null}.
+     */
+    private Set<String> qualifiedPackages;
+
+    /**
+     * Resolves the classes visible from a file.
+     *
+     * @param packageManager the known packages
+     * @param javaFile the file
+     * @param packageRoot relative path from the file to the root of the cross-reference
+     * @param hrefCache the links shared with other files
+     */
+    SymbolTable(PackageManager packageManager, JavaFile javaFile, String packageRoot, HrefCache hrefCache) {
+        this.packageRoot = packageRoot;
+        this.hrefCache = hrefCache;
+
+        for (String pkg : getVisiblePackages(javaFile)) {
+            // the package might not be known because it wasn't parsed out
+            PackageType packageType = packageManager.getPackageType(pkg);
+            if (packageType == null) {
+                continue;
+            }
+            knownPackages = true;
+            for (ClassType classType : packageType.getClassTypes()) {
+                // a class of the first package that has it wins
+                if (visibleClasses.get(classType.getName()) == null) {
+                    visibleClasses.put(classType.getName(), hrefCache.getSymbol(packageRoot, pkg, classType));
+                }
+            }
+        }
+
+        if (knownPackages) {
+            for (PackageType packageType : packageManager.getPackageTypes()) {
+                packageTypes.put(packageType.getName(), packageType);
+            }
+        }
+    }
+
+    /**
+     * Resolves a simple class name.
+     *
+     * @param text text holding the name
+     * @param start offset of the first character of the name
+     * @param end offset after the last character of the name
+     * @return the class, or {@code null} if it isn't visible from the file
+     */
+    Symbol resolve(CharSequence text, int start, int end) {
+        return visibleClasses.get(text, start, end);
+    }
+
+    /**
+     * Resolves a simple class name.
+     *
+     * @param text characters holding the name
+     * @param start offset of the first character of the name
+     * @param end offset after the last character of the name
+     * @return the class, or {@code null} if it isn't visible from the file
+     */
+    Symbol resolve(char[] text, int start, int end) {
+        return visibleClasses.get(text, start, end);
+    }
+
+    /**
+     * Resolves a fully qualified class name, which doesn't have to be imported.
+     *
+     * @param text text holding the name
+     * @param start offset of the first character of the name
+     * @param dot offset of the last dot of the name
+     * @param end offset after the last character of the name
+     * @return the class, or {@code null} if it isn't known
+     */
+    Symbol resolveQualified(CharSequence text, int start, int dot, int end) {
+        Symbol symbol = qualifiedClasses.get(text, start, end);
+        if (symbol == null) {
+            if (qualifiedPackages != null) {
+                qualifiedPackages.add(text.subSequence(start, dot).toString());
+            }
+            PackageType packageType = packageTypes.get(text, start, dot);
+            if (packageType != null) {
+                ClassType classType = packageType.getClassType(
+                        text.subSequence(dot + 1, end).toString());
+                if (classType != null) {
+                    symbol = hrefCache.getSymbol(packageRoot, packageType.getName(), classType);
+                    qualifiedClasses.put(text.subSequence(start, end).toString(), symbol);
+                }
+            }
+        }
+        return symbol;
+    }
+
+    /**
+     * Records the packages of the qualified names looked up from now on, whether they are known or not, so that a
+     * later run can tell if they resolve differently.
+     *
+     * @param qualifiedPackages receives the package names
+     */
+    void recordQualifiedPackages(Set<String> qualifiedPackages) {
+        this.qualifiedPackages = qualifiedPackages;
+    }
+
+    /**
+     * Gets the packages whose classes are visible from a file by their simple names: the imported packages, including
+     * {@code java.lang}, and the package of the file.
+     *
+     * @param javaFile the file
+     * @return the package names
+     */
+    static Set<String> getVisiblePackages(JavaFile javaFile) {
+        Set<String> packages = new HashSet<>();
+        for (ImportType importType : javaFile.getImportTypes()) {
+            packages.add(importType.getPackage());
+        }
+        packages.add(javaFile.getPackageType().getName());
+        return packages;
+    }
+
+    /**
+     * Checks if none of the packages visible from the file is known, in which case nothing can be resolved.
+     *
+     * @return {@code true} if nothing can be resolved
+     */
+    boolean isEmpty() {
+        return !knownPackages;
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.jxr.pacman.ClassType;
+import org.apache.maven.jxr.pacman.PackageManager;
+import org.apache.maven.jxr.pacman.PackageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records, in the destination directory, what the generated pages were rendered from: the content of the source file
+ * of each page, and the classes known when the pages of each source directory were rendered. An incremental
+ * {@link JXR#xref} skips the pages whose source is unchanged and whose links don't change, and removes the pages whose
+ * source is gone. This class is thread-safe.
+ */
+final class XrefManifest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(XrefManifest.class);
+
+    /**
+     * Name of the manifest in the destination directory.
+     */
+    static final String FILENAME = ".jxr-manifest";
+
+    /**
+     * Version of the format of the manifest, a manifest of another version is ignored.
+     */
+    private static final int VERSION = 2;
+
+    private static final String HEADER = "# JXR manifest ";
+
+    private static final String OPTIONS = "options ";
+
+    private static final String PAGE = "F";
+
+    private static final String SYMBOL = "S";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The record of a generated page.
+     */
+    static final class Entry {
+        private final String source;
+
+        private final String sourceHash;
+
+        private final Set<String> qualifiedPackages;
+
+        /**
+         * @param source path of the source file
+         * @param sourceHash digest of the content of the source file
+         * @param qualifiedPackages the packages the source file references by qualified names
+         */
+        Entry(String source, String sourceHash, Set<String> qualifiedPackages) {
+            this.source = source;
+            this.sourceHash = sourceHash;
+            this.qualifiedPackages = Collections.unmodifiableSet(new TreeSet<>(qualifiedPackages));
+        }
+
+        String getSource() {
+            return source;
+        }
+
+        String getSourceHash() {
+            return sourceHash;
+        }
+
+        Set<String> getQualifiedPackages() {
+            return qualifiedPackages;
+        }
+    }
+
+    private final Path file;
+
+    private final String options;
+
+    /**
+     * The pages of the previous run, by path relative to the destination directory.
+     */
+    private final Map<String, Entry> previous;
+
+    /**
+     * The pages of the current run, by path relative to the destination directory.
+     */
+    private final ConcurrentMap<String, Entry> current = new ConcurrentHashMap<>();
+
+    private final AtomicInteger reused = new AtomicInteger();
+
+    /**
+     * The classes of the previous run, as {step, package, class, file name} in the order they became known. A package
+     * without classes is recorded with an empty class name.
+     */
+    private final List<String[]> previousSymbols;
+
+    /**
+     * The classes of the current run, in the same form as {@link #previousSymbols}.
+     */
+    private final List<String[]> currentSymbols = new ArrayList<>();
+
+    /**
+     * The classes of the last step of the current run.
+     */
+    private Map<String, Map<String, String>> lastSymbols = Collections.emptyMap();
+
+    private XrefManifest(Path file, String options, Map<String, Entry> previous, List<String[]> previousSymbols) {
+        this.file = file;
+        this.options = options;
+        this.previous = previous;
+        this.previousSymbols = previousSymbols;
+    }
+
+    /**
+     * Loads the manifest of the previous run. The manifest is empty if there is none, if it can't be read or if the
+     * previous run used other options, so that all the pages are generated again.
+     *
+     * @param file the manifest
+     * @param options digest of the options the pages are rendered with
+     * @return the manifest
+     */
+    static XrefManifest load(Path file, String options) {
+        Map<String, Entry> previous = new HashMap<>();
+        List<String[]> previousSymbols = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!(HEADER + VERSION).equals(reader.readLine()) || !(OPTIONS + options).equals(reader.readLine())) {
+                LOGGER.debug("Ignoring the manifest {} of another version or other options", file);
+                return new XrefManifest(file, options, previous, previousSymbols);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length == 5 && PAGE.equals(fields[0])) {
+                    Set<String> qualifiedPackages = fields[4].isEmpty()
+                            ? Collections.<String>emptySet()
+                            : new TreeSet<>(Arrays.asList(fields[4].split(",")));
+                    previous.put(fields[1], new Entry(fields[2], fields[3], qualifiedPackages));
+                } else if (fields.length == 5 && SYMBOL.equals(fields[0])) {
+                    Integer.parseInt(fields[1]);
+                    previousSymbols.add(Arrays.copyOfRange(fields, 1, 5));
+                } else {
+                    throw new IOException("Malformed line: " + line);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // first run
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Unable to read the manifest {}, all the files will be generated: {}", file, e.getMessage());
+            previous.clear();
+            previousSymbols.clear();
+        }
+        return new XrefManifest(file, options, previous, previousSymbols);
+    }
+
+    /**
+     * Gets the classes that were known when the previous run rendered the pages of a source directory.
+     *
+     * @param step index of the source directory
+     * @return the file names of the classes, by package and class name
+     */
+    Map<String, Map<String, String>> getPreviousSymbols(int step) {
+        Map<String, Map<String, String>> symbols = new HashMap<>();
+        for (String[] symbol : previousSymbols) {
+            if (Integer.parseInt(symbol[0]) > step) {
+                break;
+            }
+            Map<String, String> classes = symbols.computeIfAbsent(symbol[1], p -> new HashMap<>());
+            if (!symbol[2].isEmpty()) {
+                classes.put(symbol[2], symbol[3]);
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * Records the classes known when the current run renders the pages of a source directory. The source directories
+     * are recorded in order.
+     *
+     * @param step index of the source directory
+     * @param symbols the file names of the classes, by package and class name
+     */
+    void putSymbols(int step, Map<String, Map<String, String>> symbols) {
+        String index = Integer.toString(step);
+        for (Map.Entry<String, Map<String, String>> pkg : new TreeMap<>(symbols).entrySet()) {
+            Map<String, String> last = lastSymbols.get(pkg.getKey());
+            if (last == null) {
+                currentSymbols.add(new String[] {index, pkg.getKey(), "", ""});
+                last = Collections.emptyMap();
+            }
+            for (Map.Entry<String, String> c : new TreeMap<>(pkg.getValue()).entrySet()) {
+                if (!last.containsKey(c.getKey()) || !last.get(c.getKey()).equals(c.getValue())) {
+                    currentSymbols.add(new String[] {index, pkg.getKey(), c.getKey(), c.getValue()});
+                }
+            }
+        }
+        lastSymbols = symbols;
+    }
+
+    /**
+     * Gets the classes of all the packages known by a package manager.
+     *
+     * @param packageManager the package manager
+     * @return the file names of the classes, by package and class name
+     */
+    static Map<String, Map<String, String>> getSymbols(PackageManager packageManager) {
+        Map<String, Map<String, String>> symbols = new HashMap<>();
+        for (PackageType packageType : packageManager.getPackageTypes()) {
+            Map<String, String> classes = new HashMap<>();
+            for (ClassType classType : packageType.getClassTypes()) {
+                classes.put(classType.getName(), classType.getFilename() != null ? classType.getFilename() : "");
+            }
+            symbols.put(packageType.getName(), classes);
+        }
+        return symbols;
+    }
+
+    /**
+     * Gets the record of a page from the previous run.
+     *
+     * @param output path of the page, relative to the destination directory
+     * @return the record, or {@code null} if the page wasn't generated by the previous run
+     */
+    Entry getPrevious(String output) {
+        return previous.get(output);
+    }
+
+    /**
+     * Records a page of the previous run that is still up to date.
+     *
+     * @param output path of the page, relative to the destination directory
+     * @param entry the record of the previous run
+     */
+    void reuse(String output, Entry entry) {
+        current.put(output, entry);
+        reused.incrementAndGet();
+    }
+
+    /**
+     * Records a page generated by the current run.
+     *
+     * @param output path of the page, relative to the destination directory
+     * @param entry the record
+     */
+    void update(String output, Entry entry) {
+        current.put(output, entry);
+    }
+
+    /**
+     * Gets the number of pages of the previous run that were still up to date.
+     *
+     * @return the number of pages
+     */
+    int getReused() {
+        return reused.get();
+    }
+
+    /**
+     * Gets the number of pages generated by the current run.
+     *
+     * @return the number of pages
+     */
+    int getUpdated() {
+        return current.size() - reused.get();
+    }
+
+    /**
+     * Gets the pages of the previous run that the current run didn't generate, because their source is gone.
+     *
+     * @return the paths of the pages, relative to the destination directory
+     */
+    List<String> getRemoved() {
+        List<String> removed = new ArrayList<>();
+        for (String output : previous.keySet()) {
+            if (!current.containsKey(output)) {
+                removed.add(output);
+            }
+        }
+        Collections.sort(removed);
+        return removed;
+    }
+
+    /**
+     * Writes the records of the current run. The manifest is replaced at once, so that an interrupted write leaves
+     * the previous manifest.
+     *
+     * @throws IOException if the manifest could not be written
+     */
+    void save() throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER + VERSION);
+            writer.newLine();
+            writer.write(OPTIONS + options);
+            writer.newLine();
+            for (String[] symbol : currentSymbols) {
+                writer.write(SYMBOL);
+                for (String field : symbol) {
+                    writer.write('\t');
+                    writer.write(field);
+                }
+                writer.newLine();
+            }
+            for (Map.Entry<String, Entry> e : new TreeMap<>(current).entrySet()) {
+                Entry entry = e.getValue();
+                writer.write(PAGE);
+                writer.write('\t');
+                writer.write(e.getKey());
+                writer.write('\t');
+                writer.write(entry.getSource());
+                writer.write('\t');
+                writer.write(entry.getSourceHash());
+                writer.write('\t');
+                writer.write(String.join(",", entry.getQualifiedPackages()));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Creates the digest used for the content of the files and the options.
+     *
+     * @return a new digest
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every implementation of the Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Completes a digest.
+     *
+     * @param digest the digest
+     * @return the digest, in hexadecimal
+     */
+    static String toHex(MessageDigest digest) {
+        byte[] bytes = digest.digest();
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Computes the digest of the content of a file.
+     *
+     * @param path the file
+     * @return the digest, in hexadecimal
+     * @throws IOException if the file could not be read
+     */
+    static String hash(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(Files.readAllBytes(path));
+        return toHex(digest);
+    }
+}
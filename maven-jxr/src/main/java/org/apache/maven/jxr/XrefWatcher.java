@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.jxr.pacman.FileManager;
+import org.apache.maven.jxr.pacman.PackageManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a cross-reference up to date while its sources are edited. The source directories are watched with a
+ * {@link WatchService}, and each batch of changes runs an incremental {@link JXR#xref}: only the changed files are
+ * parsed, only the pages of the changed files and of the files linking to changed classes are rendered, and only the
+ * index pages of the changed packages are written.
+ *
+ * <p>The same {@link JXR} is used by all the runs. It keeps the parsed files in memory and is told which files changed
+ * by {@link JXR#refresh(Collection)}, so that the other files are neither scanned nor read again. The pages are the
+ * same as the ones of a run of the report.</p>
+ *
+ * @since 3.6.1
+ */
+public class XrefWatcher implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(XrefWatcher.class);
+
+    private static final String USAGE = "Usage: java " + XrefWatcher.class.getName()
+            + " [-inputEncoding enc] [-outputEncoding enc] [-locale tag] [-templateDir dir] [-stylesheet file]"
+            + " [-windowTitle title] [-docTitle title] [-bottom text] [-threads n] [-engine FILTERS|LEXER] [-once]"
+            + " <destination> <source directory>...";
+
+    private final JXR jxr;
+
+    private final List<String> sourceDirs;
+
+    private final String templateDir;
+
+    private final String windowTitle;
+
+    private final String docTitle;
+
+    private final String bottom;
+
+    /**
+     * How long the sources must stay unchanged before a run, in milliseconds.
+     */
+    private long quietPeriod = 100;
+
+    private WatchService watchService;
+
+    /**
+     * The watched directories, by key.
+     */
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /**
+     * The files and directories changed since the previous run, {@code null} if any file may have changed.
+     */
+    private Set<Path> changes = new HashSet<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param jxr the configured {@link JXR}, used for all the runs
+     * @param sourceDirs source directories
+     * @param templateDir template directory
+     * @param windowTitle window title
+     * @param docTitle document title
+     * @param bottom bottom text
+     */
+    public XrefWatcher(
+            JXR jxr,
+            List<String> sourceDirs,
+            String templateDir,
+            String windowTitle,
+            String docTitle,
+            String bottom) {
+        this.jxr = jxr;
+        this.sourceDirs = new ArrayList<>(sourceDirs);
+        this.templateDir = templateDir;
+        this.windowTitle = windowTitle;
+        this.docTitle = docTitle;
+        this.bottom = bottom;
+    }
+
+    /**
+     * Sets how long the sources must stay unchanged before they are processed, so that the files saved together are
+     * processed in one run.
+     *
+     * @param quietPeriod the period in milliseconds
+     */
+    public void setQuietPeriod(long quietPeriod) {
+        this.quietPeriod = Math.max(0, quietPeriod);
+    }
+
+    /**
+     * Brings the cross-reference up to date once.
+     *
+     * @throws IOException on I/O error
+     * @throws JxrException on Velocity error
+     */
+    public void xref() throws IOException, JxrException {
+        long start = System.nanoTime();
+        jxr.setIncremental(true);
+        jxr.xref(sourceDirs, templateDir, windowTitle, docTitle, bottom);
+        LOGGER.info("Updated the cross-reference in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Brings the cross-reference up to date, then again after each change of the sources, until the watcher is closed
+     * or the thread is interrupted. A run that fails is logged and the watcher waits for the next change.
+     *
+     * @throws IOException if the source directories can't be watched
+     */
+    public void watch() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            watchService = FileSystems.getDefault().newWatchService();
+        }
+        try {
+            for (String dir : sourceDirs) {
+                // the paths of the events are resolved like the source files of the runs
+                register(Paths.get(dir).toRealPath());
+            }
+            LOGGER.info("Watching {} for changes", sourceDirs);
+            run();
+            while (awaitChanges()) {
+                update();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed while waiting
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Stops watching the sources.
+     *
+     * @throws IOException on I/O error
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void run() {
+        try {
+            xref();
+        } catch (IOException | JxrException | RuntimeException e) {
+            LOGGER.error("Unable to update the cross-reference", e);
+        }
+    }
+
+    /*
+     * Tells the cross-reference which files changed, then brings it up to date
+     */
+    private void update() {
+        jxr.refresh(changes);
+        changes = new HashSet<>();
+        run();
+    }
+
+    /*
+     * Waits for a change of the sources and for the quiet period after it, returns false once closed
+     */
+    private boolean awaitChanges() throws IOException, InterruptedException {
+        boolean changed = false;
+        WatchKey key = watchService.take();
+        while (key != null) {
+            changed |= processEvents(key);
+            key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS);
+            if (key == null && !changed) {
+                key = watchService.take();
+            }
+        }
+        return !closed;
+    }
+
+    /*
+     * Registers the new directories and records the changed files, returns true if a source may have changed
+     */
+    private boolean processEvents(WatchKey key) throws IOException {
+        Path dir = directories.get(key);
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                // events were lost
+                changes = null;
+                changed = true;
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                register(child);
+                addChange(child);
+                changed = true;
+            } else if (JXR.isJavaFile(child.toString())
+                    || (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && directories.containsValue(child))) {
+                addChange(child);
+                changed = true;
+            }
+        }
+        if (!key.reset()) {
+            // the directory is gone
+            directories.remove(key);
+            addChange(dir);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void addChange(Path path) {
+        if (changes != null) {
+            changes.add(path);
+        }
+    }
+
+    private void register(Path root) throws IOException {
+        List<Path> dirs;
+        try (Stream<Path> paths = Files.walk(root)) {
+            dirs = paths.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+        for (Path dir : dirs) {
+            WatchKey key = dir.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            directories.put(key, dir);
+        }
+    }
+
+    /**
+     * Runs the watcher outside of Maven. It stops when the process is interrupted.
+     *
+     * <p>The stylesheet is a file or a resource of the class path, by default the {@code stylesheet.css} resource of
+     * the templates, as found in the class path of the plugin.</p>
+     *
+     * @param args the options, the destination directory and the source directories
+     * @throws IllegalArgumentException if the arguments are invalid
+     * @throws Exception if the cross-reference can't be generated
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("-inputEncoding", "UTF-8");
+        options.put("-outputEncoding", "UTF-8");
+        options.put("-locale", Locale.getDefault().toLanguageTag());
+        options.put("-templateDir", "templates/jdk8");
+        options.put("-stylesheet", null);
+        options.put("-windowTitle", "Source Xref");
+        options.put("-docTitle", "Source Xref");
+        options.put("-bottom", "");
+        options.put("-threads", "1");
+        options.put("-engine", JavaCodeTransform.Engine.FILTERS.name());
+        boolean once = false;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-"); i++) {
+            if ("-once".equals(args[i])) {
+                once = true;
+            } else if (options.containsKey(args[i]) && i + 1 < args.length) {
+                options.put(args[i], args[++i]);
+            } else {
+                throw new IllegalArgumentException(USAGE);
+            }
+        }
+        if (args.length - i < 2) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        Path dest = Paths.get(args[i]);
+        List<String> sourceDirs = Arrays.asList(Arrays.copyOfRange(args, i + 1, args.length));
+
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        JavaCodeTransform transformer = new JavaCodeTransform(packageManager, fileManager);
+        transformer.setEngine(JavaCodeTransform.Engine.valueOf(options.get("-engine")));
+        JXR jxr = new JXR(packageManager, transformer);
+        jxr.setDest(dest);
+        jxr.setLocale(Locale.forLanguageTag(options.get("-locale")));
+        jxr.setInputEncoding(options.get("-inputEncoding"));
+        jxr.setOutputEncoding(options.get("-outputEncoding"));
+        jxr.setThreadCount(Integer.parseInt(options.get("-threads")));
+
+        String templateDir = options.get("-templateDir");
+        URL stylesheet = getStylesheet(options.get("-stylesheet"), templateDir);
+        if (stylesheet != null) {
+            jxr.addResource("stylesheet.css", stylesheet);
+        }
+        try (XrefWatcher watcher = new XrefWatcher(
+                jxr,
+                sourceDirs,
+                templateDir,
+                options.get("-windowTitle"),
+                options.get("-docTitle"),
+                options.get("-bottom"))) {
+            if (once) {
+                watcher.xref();
+            } else {
+                watcher.watch();
+            }
+        }
+    }
+
+    /*
+     * Finds the stylesheet, the one of the templates if none is given
+     */
+    private static URL getStylesheet(String stylesheet, String templateDir) throws IOException {
+        String resource = stylesheet;
+        if (resource == null) {
+            // templates/jdk8 goes with jdk8/stylesheet.css, templates with stylesheet.css
+            String name = Paths.get(templateDir).getFileName().toString();
+            resource = "templates".equals(name) ? "stylesheet.css" : name + "/stylesheet.css";
+        } else if (Files.isRegularFile(Paths.get(stylesheet))) {
+            return Paths.get(stylesheet).toUri().toURL();
+        }
+        URL url = XrefWatcher.class.getClassLoader().getResource(resource);
+        if (url == null) {
+            if (stylesheet != null) {
+                throw new IllegalArgumentException("Stylesheet not found: " + stylesheet);
+            }
+            LOGGER.warn("No stylesheet found for {}, the pages are not styled", templateDir);
+        }
+        return url;
+    }
+}
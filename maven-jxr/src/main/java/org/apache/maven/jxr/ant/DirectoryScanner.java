@@ -39,4 +39,16 @@ public class DirectoryScanner extends org.codehaus.plexus.util.DirectoryScanner
         newExcludes[excludesLength] = "**" + File.separatorChar + "package-info.java";
         excludes = newExcludes;
     }
+
+    /**
+     * Checks if a file matches the include and exclude patterns, without scanning the base directory.
+     *
+     * @param name the path of the file, relative to the base directory
+     * @return {@code true} if a scan would include the file
+     */
+    public boolean isSelected(String name) {
+        setupDefaultFilters();
+        setupMatchPatterns();
+        return isIncluded(name) && !isExcluded(name);
+    }
 }
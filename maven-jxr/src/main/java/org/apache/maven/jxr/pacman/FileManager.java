@@ -19,9 +19,20 @@
 package org.apache.maven.jxr.pacman;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.jxr.util.JavaSource;
+import org.apache.maven.jxr.util.SourceReader;
 
 /**
  * <p>
@@ -33,11 +44,41 @@ import java.util.Map;
  *
  * Note. This assumes that the file will not be modified on disk while
  * Alexandria is running. </p>
+ * <p>
+ *
+ * This class is thread-safe: each file is parsed at most once, even when it is
+ * requested by several threads at the same time, and lookups of files that have
+ * already been parsed never block. </p>
+ * <p>
+ *
+ * When a source cache is enabled with {@link #setSourceCacheSize(int)}, files are
+ * read once into a {@link JavaSource}, whose text is parsed and which is kept until
+ * it is {@link #takeSource(Path, String) taken} to render the file. Only the reading
+ * is shared: the symbols are parsed from the text, separately from the lexing used
+ * to render it. Files that don't fit in the cache are parsed while they are read,
+ * and never held in memory. </p>
  */
 public class FileManager {
-    private Map<Path, JavaFile> files = new HashMap<>();
+    /**
+     * The parsed files, or the pending parse of a file that is being parsed by another thread.
+     */
+    private final ConcurrentMap<Path, CompletableFuture<JavaFile>> files = new ConcurrentHashMap<>();
 
-    private String encoding = null;
+    /**
+     * Default size of the source cache, in characters.
+     */
+    public static final int DEFAULT_SOURCE_CACHE_SIZE = 8 * 1024 * 1024;
+
+    private volatile String encoding = null;
+
+    private volatile int sourceCacheSize;
+
+    /**
+     * The sources lexed while parsing and not taken yet, guarded by itself.
+     */
+    private final Map<Path, JavaSource> sources = new HashMap<>();
+
+    private long cachedChars;
 
     /**
      * Gets a file from its name.<br>
@@ -49,14 +90,130 @@ public class FileManager {
      */
     public JavaFile getFile(Path path) throws IOException {
 
-        JavaFile real = this.files.get(path);
+        CompletableFuture<JavaFile> real = this.files.get(path);
 
         if (real == null) {
-            real = new JavaFileImpl(path, this.getEncoding());
-            this.addFile(real);
+            CompletableFuture<JavaFile> parsing = new CompletableFuture<>();
+
+            real = this.files.putIfAbsent(path, parsing);
+
+            if (real == null) {
+                // this thread won: parse the file, other threads wait for the result
+                real = parsing;
+                try {
+                    parsing.complete(parse(path));
+                } catch (IOException | RuntimeException | Error e) {
+                    // don't remember failures, a later call will try again
+                    this.files.remove(path, parsing);
+                    parsing.completeExceptionally(e);
+                }
+            }
         }
 
-        return real;
+        try {
+            return real.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private JavaFile parse(Path path) throws IOException {
+        String encoding = this.getEncoding();
+        if (sourceCacheSize <= 0 || !fitsInSourceCache(path)) {
+            // a source that wouldn't be cached is parsed while it is read, so that its size doesn't matter
+            return new JavaFileImpl(path, encoding);
+        }
+
+        JavaSource source;
+        try (Reader reader = SourceReader.open(path, encoding)) {
+            source = JavaSource.read(reader);
+        }
+        JavaFile file = new JavaFileImpl(path, encoding, source);
+
+        synchronized (sources) {
+            // both passes visit the files in the same order, so once the cache is full new sources are not cached,
+            // evicting older ones would drop the ones that are needed first
+            if (cachedChars + source.length() <= sourceCacheSize) {
+                JavaSource previous = sources.put(path, source);
+                cachedChars += source.length() - (previous != null ? previous.length() : 0);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Checks if the room left in the source cache can hold a file, taking its size in bytes as an upper bound of its
+     * number of characters.
+     */
+    private boolean fitsInSourceCache(Path path) throws IOException {
+        long size = Files.size(path);
+        synchronized (sources) {
+            return cachedChars + size <= sourceCacheSize;
+        }
+    }
+
+    /**
+     * Takes the lexed source of a file out of the source cache.
+     *
+     * @param path path of the file
+     * @param encoding encoding the file is to be read with
+     * @return the lexed source, or {@code null} if it isn't cached or was read with another encoding
+     */
+    public JavaSource takeSource(Path path, String encoding) {
+        JavaSource source;
+        synchronized (sources) {
+            source = sources.remove(path);
+            if (source != null) {
+                cachedChars -= source.length();
+            }
+        }
+        return source != null && sameCharset(encoding, this.getEncoding()) ? source : null;
+    }
+
+    private static boolean sameCharset(String encoding1, String encoding2) {
+        if (Objects.equals(encoding1, encoding2)) {
+            return true;
+        }
+        try {
+            Charset charset1 = encoding1 != null ? Charset.forName(encoding1) : Charset.defaultCharset();
+            Charset charset2 = encoding2 != null ? Charset.forName(encoding2) : Charset.defaultCharset();
+            return charset1.equals(charset2);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets the maximum number of characters of the sources kept in the source cache. With a size of 0, the default,
+     * the source cache is disabled and files are parsed without being lexed.
+     *
+     * @param sourceCacheSize maximum number of cached characters
+     */
+    public void setSourceCacheSize(int sourceCacheSize) {
+        this.sourceCacheSize = Math.max(sourceCacheSize, 0);
+        if (this.sourceCacheSize == 0) {
+            synchronized (sources) {
+                sources.clear();
+                cachedChars = 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the maximum number of characters of the sources kept in the source cache.
+     *
+     * @return maximum number of cached characters, 0 if the source cache is disabled
+     */
+    public int getSourceCacheSize() {
+        return sourceCacheSize;
     }
 
     /**
@@ -64,7 +221,36 @@ public class FileManager {
      * @param file file to add
      */
     public void addFile(JavaFile file) {
-        this.files.put(file.getPath(), file);
+        this.files.put(file.getPath(), CompletableFuture.completedFuture(file));
+    }
+
+    /**
+     * Forgets a file, so that it is parsed again the next time it is requested.
+     *
+     * @param path path of the file
+     * @since 3.6.1
+     */
+    public void remove(Path path) {
+        this.files.remove(path);
+        synchronized (sources) {
+            JavaSource source = sources.remove(path);
+            if (source != null) {
+                cachedChars -= source.length();
+            }
+        }
+    }
+
+    /**
+     * Forgets all the files.
+     *
+     * @since 3.6.1
+     */
+    public void clear() {
+        this.files.clear();
+        synchronized (sources) {
+            sources.clear();
+            cachedChars = 0;
+        }
     }
 
     /**
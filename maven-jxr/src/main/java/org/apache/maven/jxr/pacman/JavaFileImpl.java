@@ -18,17 +18,19 @@
  */
 package org.apache.maven.jxr.pacman;
 
-import java.io.FileInputStream;
-import java.io.FileReader;
+import java.io.CharArrayReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StreamTokenizer;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
+import org.apache.maven.jxr.util.JavaSource;
+import org.apache.maven.jxr.util.SourceReader;
+
 /**
  * PacMan implementation of a JavaFile. This will parse out the file and
  * determine package, class, and imports
@@ -58,6 +60,21 @@ public class JavaFileImpl extends JavaFile {
         this.parse();
     }
 
+    /**
+     * Constructor of a new object for a file that has already been lexed.
+     *
+     * @param path path of the file
+     * @param encoding encoding of the file
+     * @param source the lexed content of the file
+     */
+    public JavaFileImpl(Path path, String encoding, JavaSource source) {
+        super(path, encoding);
+
+        this.addImportType(new ImportType("java.lang.*"));
+
+        this.parse(source);
+    }
+
     /**
      * Opens up the file and try to determine package, class and import statements.
      */
@@ -72,6 +89,20 @@ public class JavaFileImpl extends JavaFile {
         }
     }
 
+    /**
+     * Determines package, class and import statements from the text of a file that has already been read, with the
+     * same tokenizer as {@link #parse()}, so that both give the same packages, classes and imports. The tokens of the
+     * lexed source are not used.
+     */
+    private void parse(JavaSource source) {
+        try (Reader reader = new CharArrayReader(source.getText(), 0, source.length())) {
+            parseRecursive("", this.getTokenizer(reader));
+        } catch (IOException e) {
+            // not thrown by a reader of an array
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void parseRecursive(String nestedPrefix, StreamTokenizer stok) throws IOException {
         int openBracesCount = 0;
 
@@ -164,10 +195,6 @@ public class JavaFileImpl extends JavaFile {
             throw new IOException(this.getPath() + " does not exist!");
         }
 
-        if (this.getEncoding() != null) {
-            return new InputStreamReader(new FileInputStream(this.getPath().toFile()), this.getEncoding());
-        } else {
-            return new FileReader(this.getPath().toFile());
-        }
+        return SourceReader.open(this.getPath(), this.getEncoding());
     }
 }
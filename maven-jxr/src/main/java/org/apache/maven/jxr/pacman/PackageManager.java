@@ -25,8 +25,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import org.codehaus.plexus.util.DirectoryScanner;
+import org.apache.maven.jxr.ant.DirectoryScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,10 +63,34 @@ public class PackageManager {
      */
     private String[] includes = {"**/*.java"};
 
+    /**
+     * The number of threads used to parse source files.
+     */
+    private int threadCount = 1;
+
+    /**
+     * The file of the symbol index, or {@code null} if the files are always parsed.
+     */
+    private Path symbolIndexFile;
+
+    /**
+     * The symbol index, loaded when the first file is parsed.
+     */
+    private volatile SymbolIndex symbolIndex;
+
     public PackageManager(FileManager fileManager) {
         this.fileManager = fileManager;
     }
 
+    /**
+     * Gets the manager of the files whose packages and classes are collected.
+     *
+     * @return the file manager
+     */
+    public FileManager getFileManager() {
+        return fileManager;
+    }
+
     /**
      * Given the name of a package (Ex: org.apache.maven.util) obtain it from
      * the package manager.
@@ -100,9 +126,9 @@ public class PackageManager {
     }
 
     /**
-     * Parse out all the directories on which this depends.
+     * Get the source files of a directory that match the include and exclude patterns.
      */
-    private void parse(Path baseDir) {
+    private String[] scan(Path baseDir) {
         // Go through each directory and get the java source
         // files for this dir.
         LOGGER.debug("Scanning " + baseDir);
@@ -110,41 +136,177 @@ public class PackageManager {
         directoryScanner.setBasedir(baseDir.toFile());
         directoryScanner.setExcludes(excludes);
         directoryScanner.setIncludes(includes);
+        directoryScanner.addDefaultExcludes();
         directoryScanner.scan();
 
-        for (String file : directoryScanner.getIncludedFiles()) {
-            LOGGER.debug("parsing... " + file);
+        return directoryScanner.getIncludedFiles();
+    }
 
-            // now parse out this file to get the packages/classname/etc
+    /**
+     * Parse out the given files of a directory.
+     */
+    private void parse(Path baseDir, String[] files) {
+        if (threadCount > 1 && files.length > 1) {
+            JavaFile[] javaFiles = new JavaFile[files.length];
+            ForkJoinPool pool = new ForkJoinPool(Math.min(threadCount, files.length));
             try {
-                Path fileName = baseDir.resolve(file);
-                JavaFile jfi = fileManager.getFile(fileName);
+                pool.invoke(new ParseTask(baseDir, files, javaFiles, 0, files.length));
+            } finally {
+                pool.shutdown();
+            }
+
+            // blend the results in scanning order, so that the model is the same as when parsing serially
+            for (JavaFile jfi : javaFiles) {
+                if (jfi != null) {
+                    merge(jfi);
+                }
+            }
+            return;
+        }
 
-                // now that we have this parsed out blend its information
-                // with the current package structure
-                PackageType jp = this.getPackageType(jfi.getPackageType().getName());
+        for (String file : files) {
+            JavaFile jfi = parseFile(baseDir, file);
+            if (jfi != null) {
+                merge(jfi);
+            }
+        }
+    }
 
-                if (jp == null) {
-                    this.addPackageType(jfi.getPackageType());
-                    jp = jfi.getPackageType();
+    /**
+     * Parse out a single file to get the packages/classname/etc.
+     *
+     * @return the parsed file or {@code null} if it couldn't be parsed
+     */
+    private JavaFile parseFile(Path baseDir, String file) {
+        Path path = baseDir.resolve(file);
+        try {
+            SymbolIndex index = getSymbolIndex();
+            if (index != null) {
+                JavaFile indexed = index.get(path, fileManager.getEncoding());
+                if (indexed != null) {
+                    fileManager.addFile(indexed);
+                    return indexed;
                 }
+            }
+
+            LOGGER.debug("parsing... " + file);
+            JavaFile parsed = fileManager.getFile(path);
+            if (index != null) {
+                index.put(parsed);
+            }
+            return parsed;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-                // Add the current file's class(es) to this global package.
-                if (jfi.getClassTypes() != null && !jfi.getClassTypes().isEmpty()) {
-                    for (ClassType ct : jfi.getClassTypes()) {
-                        jp.addClassType(ct);
-                    }
+    private SymbolIndex getSymbolIndex() {
+        SymbolIndex index = symbolIndex;
+        if (index == null && symbolIndexFile != null) {
+            synchronized (this) {
+                index = symbolIndex;
+                if (index == null) {
+                    // the configuration is only known once the files are parsed
+                    String configuration =
+                            JavaFile.class.getPackage().getImplementationVersion() + ',' + fileManager.getEncoding();
+                    index = SymbolIndex.load(symbolIndexFile, configuration);
+                    symbolIndex = index;
                 }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Blend the information of a parsed file with the current package structure.
+     */
+    private void merge(JavaFile jfi) {
+        PackageType jp = this.getPackageType(jfi.getPackageType().getName());
 
-            } catch (IOException e) {
-                e.printStackTrace();
+        if (jp == null) {
+            // not the package of the file, which would collect the classes of the other files
+            jp = new PackageType(jfi.getPackageType().getName());
+            this.addPackageType(jp);
+        }
+
+        // Add the current file's class(es) to this global package.
+        if (jfi.getClassTypes() != null && !jfi.getClassTypes().isEmpty()) {
+            for (ClassType ct : jfi.getClassTypes()) {
+                jp.addClassType(ct);
             }
         }
     }
 
+    /**
+     * Scans a directory for source files and parses them, unless the directory has already been processed.
+     *
+     * @param directory source directory
+     */
     public void process(Path directory) {
         if (this.directories.add(directory)) {
-            this.parse(directory);
+            this.parse(directory, this.scan(directory));
+        }
+    }
+
+    /**
+     * Parses the given files of a directory, unless the directory has already been processed. This avoids scanning
+     * the directory again when its files are already known.
+     *
+     * @param directory source directory
+     * @param files the files to parse, relative to {@code directory}
+     */
+    public void process(Path directory, String[] files) {
+        if (this.directories.add(directory)) {
+            this.parse(directory, files);
+        }
+    }
+
+    /**
+     * Forgets the packages and classes collected so far, so that the directories are processed again, and the given
+     * files, so that they are parsed again. The other files are taken from the file manager without being read.
+     *
+     * @param files the source files that were created, modified or deleted, {@code null} to parse all the files again
+     * @since 3.6.1
+     */
+    public void refresh(Collection<Path> files) {
+        if (files == null) {
+            fileManager.clear();
+        } else {
+            for (Path file : files) {
+                fileManager.remove(file);
+            }
+        }
+        this.directories.clear();
+        this.packages.clear();
+        this.defaultPackage = new PackageType();
+    }
+
+    /**
+     * Sets the file where the packages, classes and imports parsed out of the source files are kept between runs.
+     * The files that are unchanged since the previous run, according to their size and modification time, or else
+     * their content, are then taken from the index instead of being parsed. The index is written by
+     * {@link #saveSymbolIndex()}; an index written with another version or configuration is ignored.
+     *
+     * @param symbolIndexFile the file of the index, {@code null} to always parse the files
+     * @since 3.6.1
+     */
+    public void setSymbolIndex(Path symbolIndexFile) {
+        this.symbolIndexFile = symbolIndexFile;
+        this.symbolIndex = null;
+    }
+
+    /**
+     * Writes the symbol index with the files processed so far, if a file was set with {@link #setSymbolIndex(Path)}.
+     *
+     * @throws IOException if the index could not be written
+     * @since 3.6.1
+     */
+    public void saveSymbolIndex() throws IOException {
+        SymbolIndex index = getSymbolIndex();
+        if (index != null) {
+            index.save();
+            LOGGER.debug("Took {} source files from the symbol index", index.getReused());
         }
     }
 
@@ -172,4 +334,55 @@ public class PackageManager {
     public void setIncludes(String[] includes) {
         this.includes = includes;
     }
+
+    /**
+     * Sets the number of threads used to parse source files. With more than one thread, the files of a directory are
+     * parsed concurrently; the resulting packages and classes are the same as with a single thread.
+     *
+     * @param threadCount number of threads, values lower than 1 are treated as 1
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Parses a range of files, splitting it in halves until it is small enough to be handled by a single worker.
+     */
+    private final class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private static final int THRESHOLD = 8;
+
+        private final Path baseDir;
+
+        private final String[] files;
+
+        private final JavaFile[] javaFiles;
+
+        private final int start;
+
+        private final int end;
+
+        ParseTask(Path baseDir, String[] files, JavaFile[] javaFiles, int start, int end) {
+            this.baseDir = baseDir;
+            this.files = files;
+            this.javaFiles = javaFiles;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    javaFiles[i] = parseFile(baseDir, files[i]);
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(
+                        new ParseTask(baseDir, files, javaFiles, start, middle),
+                        new ParseTask(baseDir, files, javaFiles, middle, end));
+            }
+        }
+    }
 }
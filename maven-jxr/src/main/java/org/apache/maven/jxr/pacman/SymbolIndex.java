@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.pacman;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the packages, classes and imports parsed out of the source files between runs, so that a file whose size and
+ * modification time, or else content, are unchanged is not parsed again.
+ * <p>
+ * The index is a binary file: a header with the version of the format and the configuration the files were parsed
+ * with, a table of all the strings, then the files, referencing the strings by their index in the table. An index of
+ * another version or configuration, or that can't be read, is ignored and all the files are parsed. This class is
+ * thread-safe.
+ */
+final class SymbolIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SymbolIndex.class);
+
+    private static final int MAGIC = 0x4A585253; // JXRS
+
+    /**
+     * Version of the format of the index, an index of another version is ignored.
+     */
+    private static final int VERSION = 1;
+
+    private static final int HASH_LENGTH = 32;
+
+    /**
+     * What is known of a source file.
+     */
+    private static final class Entry {
+        private final long size;
+
+        private final long lastModified;
+
+        private final byte[] hash;
+
+        private final String packageName;
+
+        private final String[] classNames;
+
+        private final String[] classFilenames;
+
+        private final String[] imports;
+
+        Entry(
+                long size,
+                long lastModified,
+                byte[] hash,
+                String packageName,
+                String[] classNames,
+                String[] classFilenames,
+                String[] imports) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.packageName = packageName;
+            this.classNames = classNames;
+            this.classFilenames = classFilenames;
+            this.imports = imports;
+        }
+
+        Entry withLastModified(long lastModified) {
+            return new Entry(size, lastModified, hash, packageName, classNames, classFilenames, imports);
+        }
+    }
+
+    /**
+     * A source file restored from the index.
+     */
+    private static final class IndexedJavaFile extends JavaFile {
+        IndexedJavaFile(Path path, String encoding, Entry entry) {
+            super(path, encoding);
+            setPackageType(new PackageType(entry.packageName));
+            for (int i = 0; i < entry.classNames.length; i++) {
+                addClassType(new ClassType(entry.classNames[i], entry.classFilenames[i]));
+            }
+            for (String name : entry.imports) {
+                addImportType(new ImportType(name));
+            }
+        }
+    }
+
+    private final Path file;
+
+    private final String configuration;
+
+    /**
+     * The files of the previous run.
+     */
+    private final Map<Path, Entry> previous;
+
+    /**
+     * The files of the current run.
+     */
+    private final ConcurrentMap<Path, Entry> current = new ConcurrentHashMap<>();
+
+    private final AtomicInteger reused = new AtomicInteger();
+
+    private SymbolIndex(Path file, String configuration, Map<Path, Entry> previous) {
+        this.file = file;
+        this.configuration = configuration;
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the index of a previous run.
+     *
+     * @param file the index
+     * @param configuration the configuration the files are parsed with, EX: their encoding
+     * @return the index, empty if there is none, if it can't be read or if it was made with another configuration
+     */
+    static SymbolIndex load(Path file, String configuration) {
+        Map<Path, Entry> previous = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(configuration)) {
+                LOGGER.debug("Ignoring the symbol index {} of another version or configuration", file);
+                return new SymbolIndex(file, configuration, previous);
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            int files = in.readInt();
+            for (int f = 0; f < files; f++) {
+                Path path = Paths.get(strings[in.readInt()]);
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                byte[] hash = new byte[HASH_LENGTH];
+                in.readFully(hash);
+                String packageName = strings[in.readInt()];
+                int classes = in.readInt();
+                String[] classNames = new String[classes];
+                String[] classFilenames = new String[classes];
+                for (int i = 0; i < classes; i++) {
+                    classNames[i] = strings[in.readInt()];
+                    int filename = in.readInt();
+                    classFilenames[i] = filename >= 0 ? strings[filename] : null;
+                }
+                String[] imports = new String[in.readInt()];
+                for (int i = 0; i < imports.length; i++) {
+                    imports[i] = strings[in.readInt()];
+                }
+                previous.put(
+                        path, new Entry(size, lastModified, hash, packageName, classNames, classFilenames, imports));
+            }
+        } catch (NoSuchFileException e) {
+            // first run
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to read the symbol index {}, all the files will be parsed: {}", file, e.toString());
+            previous.clear();
+        }
+        return new SymbolIndex(file, configuration, previous);
+    }
+
+    /**
+     * Gets a file from the index if it is unchanged since it was indexed.
+     *
+     * @param path path of the file
+     * @param encoding encoding of the file
+     * @return the file, or {@code null} if it has to be parsed
+     * @throws IOException if the file could not be read
+     */
+    JavaFile get(Path path, String encoding) throws IOException {
+        Entry entry = previous.get(path);
+        if (entry == null) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        if (attributes.size() != entry.size) {
+            return null;
+        }
+        if (lastModified != entry.lastModified) {
+            // touched, but maybe not modified
+            if (!Arrays.equals(hash(path), entry.hash)) {
+                return null;
+            }
+            entry = entry.withLastModified(lastModified);
+        }
+        current.put(path, entry);
+        reused.incrementAndGet();
+        return new IndexedJavaFile(path, encoding, entry);
+    }
+
+    /**
+     * Adds a parsed file to the index.
+     *
+     * @param javaFile the file
+     * @throws IOException if the file could not be read
+     */
+    void put(JavaFile javaFile) throws IOException {
+        Path path = javaFile.getPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        List<ClassType> classTypes = javaFile.getClassTypes();
+        String[] classNames = new String[classTypes.size()];
+        String[] classFilenames = new String[classTypes.size()];
+        for (int i = 0; i < classNames.length; i++) {
+            classNames[i] = classTypes.get(i).getName();
+            classFilenames[i] = classTypes.get(i).getFilename();
+        }
+        List<String> imports = new ArrayList<>();
+        for (ImportType importType : javaFile.getImportTypes()) {
+            imports.add(importType.getName());
+        }
+        current.put(
+                path,
+                new Entry(
+                        attributes.size(),
+                        attributes.lastModifiedTime().toMillis(),
+                        hash(path),
+                        javaFile.getPackageType().getName(),
+                        classNames,
+                        classFilenames,
+                        imports.toArray(new String[0])));
+    }
+
+    /**
+     * Gets the number of files taken from the index.
+     *
+     * @return the number of files
+     */
+    int getReused() {
+        return reused.get();
+    }
+
+    /**
+     * Writes the files of the current run. The index is replaced at once, so that an interrupted write leaves the
+     * previous index.
+     *
+     * @throws IOException if the index could not be written
+     */
+    void save() throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Map.Entry<Path, Entry> e : current.entrySet()) {
+            Entry entry = e.getValue();
+            intern(strings, e.getKey().toString());
+            intern(strings, entry.packageName);
+            for (int i = 0; i < entry.classNames.length; i++) {
+                intern(strings, entry.classNames[i]);
+                intern(strings, entry.classFilenames[i]);
+            }
+            for (String name : entry.imports) {
+                intern(strings, name);
+            }
+        }
+
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(configuration);
+            out.writeInt(strings.size());
+            for (String string : strings.keySet()) {
+                out.writeUTF(string);
+            }
+            out.writeInt(current.size());
+            for (Map.Entry<Path, Entry> e : current.entrySet()) {
+                Entry entry = e.getValue();
+                out.writeInt(strings.get(e.getKey().toString()));
+                out.writeLong(entry.size);
+                out.writeLong(entry.lastModified);
+                out.write(entry.hash);
+                out.writeInt(strings.get(entry.packageName));
+                out.writeInt(entry.classNames.length);
+                for (int i = 0; i < entry.classNames.length; i++) {
+                    out.writeInt(strings.get(entry.classNames[i]));
+                    out.writeInt(entry.classFilenames[i] != null ? strings.get(entry.classFilenames[i]) : -1);
+                }
+                out.writeInt(entry.imports.length);
+                for (String name : entry.imports) {
+                    out.writeInt(strings.get(name));
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void intern(Map<String, Integer> strings, String string) {
+        if (string != null && !strings.containsKey(string)) {
+            strings.put(string, strings.size());
+        }
+    }
+
+    private static byte[] hash(Path path) throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(path));
+        } catch (NoSuchAlgorithmException e) {
+            // every implementation of the Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
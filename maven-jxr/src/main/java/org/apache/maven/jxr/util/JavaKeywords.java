@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+/**
+ * Recognizes the Java reserved words highlighted in the cross-reference, directly from a range of characters. The words
+ * are kept in a table indexed by a perfect hash of their first two characters, last character and length: a lookup
+ * computes the hash and compares the characters with at most one word, without creating a {@link String}.
+ */
+public final class JavaKeywords {
+    /**
+     * The reserved words.
+     */
+    private static final String[] KEYWORDS = {
+        "abstract", "boolean", "break", "byvalue", "case", "cast", "catch", "char", "class", "const", "continue",
+        "default", "do", "double", "else", "extends", "final", "finally", "float", "for", "generic", "goto", "if",
+        "implements", "import", "inner", "int", "interface", "long", "native", "new", "null", "operator", "outer",
+        "package", "private", "protected", "public", "rest", "return", "short", "static", "super", "switch",
+        "synchronized", "this", "throw", "throws", "transient", "true", "try", "var", "void", "volatile", "while"
+    };
+
+    private static final int MIN_LENGTH = 2;
+
+    private static final int MAX_LENGTH = 12;
+
+    /**
+     * The words by hash, as character arrays.
+     */
+    private static final char[][] TABLE = new char[128][];
+
+    static {
+        for (String keyword : KEYWORDS) {
+            char[] chars = keyword.toCharArray();
+            int hash = hash(chars[0], chars[1], chars[chars.length - 1], chars.length);
+            if (TABLE[hash] != null) {
+                throw new IllegalStateException("The hash of " + keyword + " is not unique");
+            }
+            TABLE[hash] = chars;
+        }
+    }
+
+    private JavaKeywords() {
+        // utility class
+    }
+
+    /**
+     * Checks if a range of characters is a reserved word.
+     *
+     * @param buf the characters
+     * @param start offset of the first character
+     * @param end offset after the last character
+     * @return {@code true} if the characters are a reserved word
+     */
+    public static boolean isKeyword(char[] buf, int start, int end) {
+        int length = end - start;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return false;
+        }
+        char[] keyword = TABLE[hash(buf[start], buf[start + 1], buf[end - 1], length)];
+        if (keyword == null || keyword.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (keyword[i] != buf[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a range of characters is a reserved word.
+     *
+     * @param text the characters
+     * @param start offset of the first character
+     * @param end offset after the last character
+     * @return {@code true} if the characters are a reserved word
+     */
+    public static boolean isKeyword(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return false;
+        }
+        char[] keyword = TABLE[hash(text.charAt(start), text.charAt(start + 1), text.charAt(end - 1), length)];
+        if (keyword == null || keyword.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (keyword[i] != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The multipliers were chosen so that the reserved words don't collide in a table of 128 entries.
+     */
+    private static int hash(char first, char second, char last, int length) {
+        return (118 * first + 58 * second + last + 14 * length) & 127;
+    }
+}
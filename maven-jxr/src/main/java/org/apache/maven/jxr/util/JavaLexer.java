@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+/**
+ * A forward-scanning lexer for Java source code that classifies each character of a line exactly once. The lexer
+ * keeps the state of constructs spanning several lines (block and javadoc comments, text blocks), so the lines of a
+ * file have to be passed in order. Tokens are reported as kinds and offsets in a {@link JavaTokens} list, no string is
+ * created.
+ */
+public final class JavaLexer {
+    /**
+     * Anything not covered by the other kinds: whitespace, operators, separators and number literals.
+     */
+    public static final int TEXT = 0;
+
+    /**
+     * A line comment, or (part of) a block comment.
+     */
+    public static final int COMMENT = 1;
+
+    /**
+     * (Part of) a javadoc comment.
+     */
+    public static final int JAVADOC = 2;
+
+    /**
+     * A string literal.
+     */
+    public static final int STRING = 3;
+
+    /**
+     * (Part of) a text block.
+     */
+    public static final int TEXT_BLOCK = 4;
+
+    /**
+     * A character literal.
+     */
+    public static final int CHAR = 5;
+
+    /**
+     * A reserved word.
+     */
+    public static final int KEYWORD = 6;
+
+    /**
+     * An identifier, qualified names are reported as identifiers separated by {@code TEXT} dots.
+     */
+    public static final int IDENTIFIER = 7;
+
+    /**
+     * A URI inside a block or javadoc comment.
+     */
+    public static final int URI = 8;
+
+    private static final int IN_CODE = 0;
+
+    private static final int IN_COMMENT = 1;
+
+    private static final int IN_JAVADOC = 2;
+
+    private static final int IN_TEXT_BLOCK = 3;
+
+    private int state = IN_CODE;
+
+    /**
+     * Resets the lexer so that it can be used for another file.
+     */
+    public void reset() {
+        state = IN_CODE;
+    }
+
+    /**
+     * Lexes a line, without its line terminator, and appends its tokens.
+     *
+     * @param buf buffer holding the line
+     * @param start offset of the first character of the line
+     * @param end offset after the last character of the line
+     * @param tokens the tokens to append to
+     */
+    public void lexLine(char[] buf, int start, int end, JavaTokens tokens) {
+        int i = start;
+        while (i < end) {
+            switch (state) {
+                case IN_COMMENT:
+                    i = lexCommentBody(COMMENT, buf, i, end, tokens);
+                    break;
+                case IN_JAVADOC:
+                    i = lexCommentBody(JAVADOC, buf, i, end, tokens);
+                    break;
+                case IN_TEXT_BLOCK:
+                    i = lexTextBlockBody(buf, i, end, tokens);
+                    break;
+                default:
+                    i = lexCode(buf, i, end, tokens);
+            }
+        }
+    }
+
+    private int lexCode(char[] buf, int i, int end, JavaTokens tokens) {
+        char c = buf[i];
+
+        if (c == '/' && i + 1 < end) {
+            if (buf[i + 1] == '/') {
+                tokens.add(COMMENT, i, end);
+                return end;
+            }
+            if (buf[i + 1] == '*') {
+                // "/**/" is an empty block comment, not a javadoc comment
+                boolean javadoc = i + 2 < end && buf[i + 2] == '*' && !(i + 3 < end && buf[i + 3] == '/');
+                state = javadoc ? IN_JAVADOC : IN_COMMENT;
+                tokens.add(javadoc ? JAVADOC : COMMENT, i, i + 2);
+                return i + 2;
+            }
+        }
+
+        if (c == '"') {
+            if (i + 2 < end && buf[i + 1] == '"' && buf[i + 2] == '"') {
+                state = IN_TEXT_BLOCK;
+                tokens.add(TEXT_BLOCK, i, i + 3);
+                return i + 3;
+            }
+            int j = skipQuoted(buf, i + 1, end, '"');
+            tokens.add(STRING, i, j);
+            return j;
+        }
+
+        if (c == '\'') {
+            int j = skipQuoted(buf, i + 1, end, '\'');
+            tokens.add(CHAR, i, j);
+            return j;
+        }
+
+        if (Character.isJavaIdentifierStart(c)) {
+            int j = i + 1;
+            while (j < end && Character.isJavaIdentifierPart(buf[j])) {
+                j++;
+            }
+            tokens.add(isKeyword(buf, i, j) ? KEYWORD : IDENTIFIER, i, j);
+            return j;
+        }
+
+        if (c >= '0' && c <= '9') {
+            // number literals, including suffixes, exponents and hexadecimal digits
+            int j = i + 1;
+            while (j < end && (Character.isJavaIdentifierPart(buf[j]) || buf[j] == '.')) {
+                j++;
+            }
+            tokens.add(TEXT, i, j);
+            return j;
+        }
+
+        tokens.add(TEXT, i, i + 1);
+        return i + 1;
+    }
+
+    private int lexCommentBody(int kind, char[] buf, int i, int end, JavaTokens tokens) {
+        int close = -1;
+        for (int j = i; j + 1 < end; j++) {
+            if (buf[j] == '*' && buf[j + 1] == '/') {
+                close = j;
+                break;
+            }
+        }
+
+        // only look for URIs before the end-of-comment, since * and / are valid URI characters
+        addWithUris(kind, buf, i, close < 0 ? end : close, tokens);
+
+        if (close < 0) {
+            return end;
+        }
+        tokens.add(kind, close, close + 2);
+        state = IN_CODE;
+        return close + 2;
+    }
+
+    private int lexTextBlockBody(char[] buf, int i, int end, JavaTokens tokens) {
+        int j = i;
+        while (j < end) {
+            if (buf[j] == '\\') {
+                j += 2;
+            } else if (buf[j] == '"' && j + 2 < end && buf[j + 1] == '"' && buf[j + 2] == '"') {
+                tokens.add(TEXT_BLOCK, i, j + 3);
+                state = IN_CODE;
+                return j + 3;
+            } else {
+                j++;
+            }
+        }
+        tokens.add(TEXT_BLOCK, i, end);
+        return end;
+    }
+
+    /**
+     * Skips a string or character literal, the opening quote having already been consumed. An unterminated literal
+     * ends with the line.
+     */
+    private static int skipQuoted(char[] buf, int i, int end, char quote) {
+        while (i < end) {
+            char c = buf[i];
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return end;
+    }
+
+    private static void addWithUris(int kind, char[] buf, int start, int end, JavaTokens tokens) {
+        int from = start;
+        for (int i = start; i < end; i++) {
+            int j = UriScanner.uriEnd(buf, i, end);
+            if (j > i) {
+                tokens.add(kind, from, i);
+                tokens.add(URI, i, j);
+                from = j;
+                i = j - 1;
+            }
+        }
+        tokens.add(kind, from, end);
+    }
+
+    /**
+     * Checks whether the given characters form a Java reserved word.
+     *
+     * @param buf buffer holding the word
+     * @param start offset of the first character
+     * @param end offset after the last character
+     * @return {@code true} if the characters are a reserved word
+     */
+    public static boolean isKeyword(char[] buf, int start, int end) {
+        return JavaKeywords.isKeyword(buf, start, end);
+    }
+}
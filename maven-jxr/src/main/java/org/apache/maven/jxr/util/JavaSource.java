@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * The content of a source file together with its tokens, as found by a single pass of the {@link JavaLexer}. The
+ * text and the tokens are kept in primitive arrays, so that the file can be read once and its tokens rendered without
+ * lexing it again. The symbols of the file are still parsed from the text by a tokenizer of their own.
+ */
+public final class JavaSource {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final char[] text;
+
+    private final int length;
+
+    private final JavaTokens tokens;
+
+    // for each line, the offsets of its first and past-the-end characters (without the line terminator),
+    // and the index of its first token, the tokens of line i are [lineTokens[i], lineTokens[i + 1])
+    private final int[] lineStarts;
+
+    private final int[] lineEnds;
+
+    private final int[] lineTokens;
+
+    private final int lineCount;
+
+    private JavaSource(
+            char[] text, int length, JavaTokens tokens, int[] lineStarts, int[] lineEnds, int[] lineTokens, int count) {
+        this.text = text;
+        this.length = length;
+        this.tokens = tokens;
+        this.lineStarts = lineStarts;
+        this.lineEnds = lineEnds;
+        this.lineTokens = lineTokens;
+        this.lineCount = count;
+    }
+
+    /**
+     * Reads and lexes a whole source. Lines are terminated by {@code \n}, {@code \r} or {@code \r\n}, like
+     * {@link java.io.BufferedReader#readLine()} does.
+     *
+     * @param in the source, not closed by this method
+     * @return the lexed source
+     * @throws IOException on I/O error
+     */
+    public static JavaSource read(Reader in) throws IOException {
+        char[] text = new char[BUFFER_SIZE];
+        int length = 0;
+        int read;
+        while ((read = in.read(text, length, text.length - length)) >= 0) {
+            length += read;
+            if (length == text.length) {
+                text = Arrays.copyOf(text, text.length * 2);
+            }
+        }
+
+        JavaLexer lexer = new JavaLexer();
+        JavaTokens tokens = new JavaTokens(Math.max(length / 4, 16));
+        int[] lineStarts = new int[64];
+        int[] lineEnds = new int[64];
+        int[] lineTokens = new int[65];
+        int count = 0;
+
+        int lineStart = 0;
+        for (int i = 0; i <= length; i++) {
+            boolean last = i == length;
+            if (last ? lineStart < length : text[i] == '\n' || text[i] == '\r') {
+                if (count == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, count * 2);
+                    lineEnds = Arrays.copyOf(lineEnds, count * 2);
+                    lineTokens = Arrays.copyOf(lineTokens, count * 2 + 1);
+                }
+                lineStarts[count] = lineStart;
+                lineEnds[count] = i;
+                lineTokens[count] = tokens.size();
+                lexer.lexLine(text, lineStart, i, tokens);
+                count++;
+
+                if (!last && text[i] == '\r' && i + 1 < length && text[i + 1] == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        lineTokens[count] = tokens.size();
+
+        return new JavaSource(text, length, tokens, lineStarts, lineEnds, lineTokens, count);
+    }
+
+    /**
+     * Gets the characters of the source. The array may be longer than the source, and must not be modified.
+     *
+     * @return the characters of the source
+     */
+    public char[] getText() {
+        return text;
+    }
+
+    /**
+     * Gets the number of characters of the source.
+     *
+     * @return the length of the source
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Gets the tokens of the whole source, with offsets in {@link #getText()}. Must not be modified.
+     *
+     * @return the tokens
+     */
+    public JavaTokens getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Gets the number of lines of the source.
+     *
+     * @return the number of lines
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Gets the offset of the first character of a line.
+     *
+     * @param line index of the line, starting at 0
+     * @return start offset
+     */
+    public int getLineStart(int line) {
+        return lineStarts[line];
+    }
+
+    /**
+     * Gets the offset after the last character of a line, without its terminator.
+     *
+     * @param line index of the line, starting at 0
+     * @return end offset
+     */
+    public int getLineEnd(int line) {
+        return lineEnds[line];
+    }
+
+    /**
+     * Gets the index of the first token of a line.
+     *
+     * @param line index of the line, starting at 0
+     * @return index of the first token
+     */
+    public int getFirstToken(int line) {
+        return lineTokens[line];
+    }
+
+    /**
+     * Gets the index after the last token of a line.
+     *
+     * @param line index of the line, starting at 0
+     * @return index after the last token
+     */
+    public int getEndToken(int line) {
+        return lineTokens[line + 1];
+    }
+}
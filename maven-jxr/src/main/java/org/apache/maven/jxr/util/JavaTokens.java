@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of tokens found by the {@link JavaLexer}. Each token is stored as its kind and the offsets of its
+ * first and past-the-end characters in the lexed text, so no object is created per token. The same instance is
+ * meant to be {@link #clear() cleared} and reused.
+ */
+public final class JavaTokens {
+    private int[] kinds;
+
+    private int[] starts;
+
+    private int[] ends;
+
+    private int size;
+
+    /**
+     * Creates an empty list of tokens.
+     */
+    public JavaTokens() {
+        this(64);
+    }
+
+    /**
+     * Creates an empty list of tokens.
+     *
+     * @param capacity initial capacity
+     */
+    public JavaTokens(int capacity) {
+        capacity = Math.max(capacity, 1);
+        kinds = new int[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+    }
+
+    /**
+     * Adds a token. A token that directly follows a token of the same kind is merged into it, unless the kind is
+     * {@link JavaLexer#KEYWORD} or {@link JavaLexer#IDENTIFIER}.
+     *
+     * @param kind kind of the token, one of the {@link JavaLexer} constants
+     * @param start offset of the first character
+     * @param end offset after the last character
+     */
+    public void add(int kind, int start, int end) {
+        if (start >= end) {
+            return;
+        }
+        if (size > 0
+                && kinds[size - 1] == kind
+                && ends[size - 1] == start
+                && kind != JavaLexer.KEYWORD
+                && kind != JavaLexer.IDENTIFIER) {
+            ends[size - 1] = end;
+            return;
+        }
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        kinds[size] = kind;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    /**
+     * Removes all tokens, keeping the allocated capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gets the number of tokens.
+     *
+     * @return number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the kind of a token.
+     *
+     * @param index index of the token
+     * @return one of the {@link JavaLexer} constants
+     */
+    public int kind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Gets the offset of the first character of a token.
+     *
+     * @param index index of the token
+     * @return start offset
+     */
+    public int start(int index) {
+        return starts[index];
+    }
+
+    /**
+     * Gets the offset after the last character of a token.
+     *
+     * @param index index of the token
+     * @return end offset
+     */
+    public int end(int index) {
+        return ends[index];
+    }
+}
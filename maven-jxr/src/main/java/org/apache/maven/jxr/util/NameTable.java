@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from names to values where names can be looked up directly from a range of characters, such as a word found
+ * by the {@link SimpleWordTokenizer}, without creating a {@link String}. Uses open addressing with linear probing,
+ * and the same hash function as {@link String#hashCode()}.
+ *
+ * @param <V> type of the values
+ */
+public final class NameTable<V> {
+    private String[] names;
+
+    private Object[] values;
+
+    private int size;
+
+    /**
+     * Creates an empty table.
+     */
+    public NameTable() {
+        names = new String[16];
+        values = new Object[16];
+    }
+
+    /**
+     * Associates a value to a name, replacing the previous value if any.
+     *
+     * @param name the name
+     * @param value the value, not {@code null}
+     */
+    public void put(String name, V value) {
+        if ((size + 1) * 2 > names.length) {
+            resize();
+        }
+        int mask = names.length - 1;
+        int i = name.hashCode() & mask;
+        while (names[i] != null) {
+            if (names[i].equals(name)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        names[i] = name;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Gets the value of a name.
+     *
+     * @param name the name
+     * @return the value, or {@code null} if the name isn't in the table
+     */
+    public V get(String name) {
+        return get(name, 0, name.length());
+    }
+
+    /**
+     * Gets the value of a name given as a range of characters.
+     *
+     * @param text the text holding the name
+     * @param start offset of the first character of the name
+     * @param end offset after the last character of the name
+     * @return the value, or {@code null} if the name isn't in the table
+     */
+    @SuppressWarnings("unchecked")
+    public V get(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        int mask = names.length - 1;
+        for (int i = hash & mask; names[i] != null; i = (i + 1) & mask) {
+            if (SimpleWordTokenizer.regionMatches(text, start, end, names[i])) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes all the names, keeping the capacity of the table.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(names, null);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Gets the number of names in the table.
+     *
+     * @return number of names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value of a name given as a range of characters.
+     *
+     * @param text the characters holding the name
+     * @param start offset of the first character of the name
+     * @param end offset after the last character of the name
+     * @return the value, or {@code null} if the name isn't in the table
+     */
+    @SuppressWarnings("unchecked")
+    public V get(char[] text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text[i];
+        }
+        int mask = names.length - 1;
+        for (int i = hash & mask; names[i] != null; i = (i + 1) & mask) {
+            if (matches(text, start, end, names[i])) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(char[] text, int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (text[start + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        String[] oldNames = names;
+        Object[] oldValues = values;
+        names = new String[oldNames.length * 2];
+        values = new Object[oldNames.length * 2];
+        size = 0;
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                put(oldNames[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
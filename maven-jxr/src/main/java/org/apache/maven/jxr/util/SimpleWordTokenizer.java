@@ -21,20 +21,34 @@ package org.apache.maven.jxr.util;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This is a small and fast word tokenizer. It has different characteristics from the normal Java tokenizer. It only
  * considers clear words that are only ended with spaces as strings. EX: "Flight" would be a word but "Flight()" would
  * not.
+ * <p>
+ * Besides the methods returning a list of {@link StringEntry}, words can be reported as offsets to a
+ * {@link WordHandler}, which creates no object at all.
  */
 public class SimpleWordTokenizer {
 
-    private static final Pattern NONBREAKERS = Pattern.compile("([^()\\[ {}]+)");
-
     private static final char[] BREAKERS = {'(', ')', '[', ' ', '{', '}'};
 
+    /**
+     * Receives the words found by {@link SimpleWordTokenizer#tokenize(CharSequence, WordHandler)}.
+     */
+    @FunctionalInterface
+    public interface WordHandler {
+        /**
+         * Called for each word, in order.
+         *
+         * @param text the text being tokenized
+         * @param start offset of the first character of the word
+         * @param end offset after the last character of the word
+         */
+        void word(CharSequence text, int start, int end);
+    }
+
     /**
      * Breaks the given line into multiple tokens.
      *
@@ -42,20 +56,13 @@ public class SimpleWordTokenizer {
      * @return list of tokens
      */
     public static List<StringEntry> tokenize(String line) {
-
-        /*
-         * determine where to start processing this String... this could either be the start of the line or just keep
-         * going until the first
-         */
-        int start = getStart(line);
-
-        // find the first non-BREAKER char and assume that is where you want to start
-
-        if (line == null || line.length() == 0 || start == -1) {
+        if (line == null || line.length() == 0) {
             return Collections.emptyList();
         }
 
-        return tokenize(line, start);
+        List<StringEntry> words = new ArrayList<>();
+        tokenize(line, (text, start, end) -> words.add(new StringEntry(line.substring(start, end), start)));
+        return words;
     }
 
     /**
@@ -66,48 +73,61 @@ public class SimpleWordTokenizer {
      * @return list of matching tokens
      */
     public static List<StringEntry> tokenize(String line, String find) {
+        if (line == null || line.length() == 0) {
+            return Collections.emptyList();
+        }
 
         List<StringEntry> foundTokens = new ArrayList<>();
-
-        for (StringEntry se : tokenize(line)) {
-
-            if (se.toString().equals(find)) {
-                foundTokens.add(se);
+        tokenize(line, (text, start, end) -> {
+            if (regionMatches(text, start, end, find)) {
+                foundTokens.add(new StringEntry(find, start));
             }
-        }
-
+        });
         return foundTokens;
     }
 
     /**
-     * Internal impl. Specify the start and end.
+     * Breaks the given text into words, reported as offsets in the text.
+     *
+     * @param text text to tokenize
+     * @param handler receives the words
      */
-    private static List<StringEntry> tokenize(String line, int start) {
-        Matcher matcher = NONBREAKERS.matcher(line.substring(start));
-
-        List<StringEntry> words = new ArrayList<>();
-
-        while (matcher.find()) {
-            StringEntry entry = new StringEntry(matcher.group(1), matcher.start() + start);
-            words.add(entry);
+    public static void tokenize(CharSequence text, WordHandler handler) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isBreaker(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isBreaker(text.charAt(i))) {
+                i++;
+            }
+            if (start < i) {
+                handler.word(text, start, i);
+            }
         }
-
-        return words;
     }
 
     /**
-     * Go through the list of BREAKERS and find the closes one.
+     * Checks if a word of a text is equal to the given string.
+     *
+     * @param text the text
+     * @param start offset of the first character of the word
+     * @param end offset after the last character of the word
+     * @param word the string to compare with
+     * @return {@code true} if the characters of the word are those of the string
      */
-    private static int getStart(String string) {
-
-        for (int i = 0; i < string.length(); ++i) {
-
-            if (!isBreaker(string.charAt(i))) {
-                return i;
+    public static boolean regionMatches(CharSequence text, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (text.charAt(start + i) != word.charAt(i)) {
+                return false;
             }
         }
-
-        return -1;
+        return true;
     }
 
     /**
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a source file through a {@link FileChannel}, in chunks of up to 64 KiB so that most files are read at once.
+ * Files in ISO-8859-1 are not decoded, each byte being its own character, and in UTF-8 or US-ASCII runs of ASCII bytes
+ * are copied as they are. Other bytes are decoded with a {@link CharsetDecoder} that is reused by the next file read
+ * by the same thread. Like {@link java.io.InputStreamReader}, malformed input is replaced.
+ */
+public final class SourceReader extends Reader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int CHAR_BUFFER_SIZE = 8192;
+
+    /**
+     * The decoder released by the last reader closed by the thread.
+     */
+    private static final ThreadLocal<CharsetDecoder> DECODER = new ThreadLocal<>();
+
+    private final FileChannel channel;
+
+    private final ByteBuffer bytes;
+
+    /**
+     * The characters decoded and not read yet.
+     */
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+
+    /**
+     * The decoder, {@code null} for ISO-8859-1.
+     */
+    private final CharsetDecoder decoder;
+
+    /**
+     * Whether the ASCII bytes are the characters they encode.
+     */
+    private final boolean ascii;
+
+    private boolean eof;
+
+    private boolean flushed;
+
+    private boolean closed;
+
+    private SourceReader(FileChannel channel, Charset charset) throws IOException {
+        this.channel = channel;
+        this.bytes = ByteBuffer.allocate((int) Math.max(Math.min(channel.size(), BUFFER_SIZE), 16));
+        this.bytes.flip();
+        this.chars.flip();
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            this.decoder = null;
+            this.ascii = true;
+        } else {
+            this.decoder = takeDecoder(charset);
+            this.ascii = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Opens a source file.
+     *
+     * @param path the file
+     * @param encoding the encoding of the file, {@code null} for the default charset of the platform
+     * @return the reader
+     * @throws UnsupportedEncodingException if the encoding is not supported
+     * @throws IOException if the file can't be opened
+     */
+    public static SourceReader open(Path path, String encoding) throws IOException {
+        Charset charset = charset(encoding);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new SourceReader(channel, charset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the charset of an encoding.
+     *
+     * @param encoding the name of the encoding, {@code null} for the default charset of the platform
+     * @return the charset
+     * @throws UnsupportedEncodingException if the encoding is not supported
+     */
+    public static Charset charset(String encoding) throws UnsupportedEncodingException {
+        if (encoding == null) {
+            return Charset.defaultCharset();
+        }
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            UnsupportedEncodingException exception = new UnsupportedEncodingException(encoding);
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    private static CharsetDecoder takeDecoder(Charset charset) {
+        CharsetDecoder decoder = DECODER.get();
+        if (decoder != null && decoder.charset().equals(charset)) {
+            // readers opened while this one is in use create their own decoder
+            DECODER.remove();
+            return decoder.reset();
+        }
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (off < 0 || len < 0 || len > cbuf.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        while (true) {
+            if (chars.hasRemaining()) {
+                // the characters decoded by a previous call come first
+                int n = Math.min(len, chars.remaining());
+                chars.get(cbuf, off, n);
+                return n;
+            }
+            int n = decoder == null ? copyLatin1(cbuf, off, len) : ascii ? copyAscii(cbuf, off, len) : 0;
+            if (n > 0) {
+                return n;
+            }
+            if (decoder != null && !flushed && decode()) {
+                continue;
+            }
+            if (eof && !bytes.hasRemaining()) {
+                return -1;
+            }
+            fill();
+        }
+    }
+
+    private int copyLatin1(char[] cbuf, int off, int len) {
+        byte[] buf = bytes.array();
+        int start = bytes.position();
+        int end = Math.min(bytes.limit(), start + len);
+        for (int i = start; i < end; i++) {
+            cbuf[off++] = (char) (buf[i] & 0xFF);
+        }
+        bytes.position(end);
+        return end - start;
+    }
+
+    private int copyAscii(char[] cbuf, int off, int len) {
+        byte[] buf = bytes.array();
+        int start = bytes.position();
+        int end = Math.min(bytes.limit(), start + len);
+        int i = start;
+        while (i < end && buf[i] >= 0) {
+            cbuf[off++] = (char) buf[i++];
+        }
+        bytes.position(i);
+        return i - start;
+    }
+
+    /**
+     * Decodes the next bytes into the buffer of decoded characters, which has room for a surrogate pair even when the
+     * caller asks for a single character.
+     *
+     * @return {@code true} if characters were decoded
+     */
+    private boolean decode() {
+        chars.clear();
+        if (bytes.hasRemaining() || eof) {
+            CoderResult result = decoder.decode(bytes, chars, eof);
+            if (eof && result.isUnderflow()) {
+                flushed = decoder.flush(chars).isUnderflow();
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    private void fill() throws IOException {
+        bytes.compact();
+        try {
+            int read;
+            do {
+                read = channel.read(bytes);
+            } while (read == 0 && bytes.hasRemaining());
+            eof = read < 0;
+        } finally {
+            bytes.flip();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            if (decoder != null) {
+                DECODER.set(decoder);
+            }
+            channel.close();
+        }
+    }
+}
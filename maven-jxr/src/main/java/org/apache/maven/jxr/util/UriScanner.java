@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+/**
+ * Recognizes the URIs linked in comments, directly from a range of characters. A scheme is found by dispatching on the
+ * character at hand, so a line is scanned once for all schemes, and the characters allowed in a URI are looked up in a
+ * 128-bit bitmap.
+ */
+public final class UriScanner {
+    /**
+     * Specify the only characters that are allowed in a URI besides alpha and numeric characters. Refer RFC2396 -
+     * http://www.ietf.org/rfc/rfc2396.txt
+     */
+    private static final String URI_CHARS = "?+%&:/.@_;=$,-!~*'()";
+
+    /**
+     * The ASCII characters allowed in a URI, for characters 0-63 and 64-127.
+     */
+    private static final long LOW;
+
+    private static final long HIGH;
+
+    static {
+        long low = 0;
+        long high = 0;
+        for (char c = 0; c < 128; c++) {
+            if (Character.isLetterOrDigit(c) || URI_CHARS.indexOf(c) >= 0) {
+                if (c < 64) {
+                    low |= 1L << c;
+                } else {
+                    high |= 1L << (c - 64);
+                }
+            }
+        }
+        LOW = low;
+        HIGH = high;
+    }
+
+    private UriScanner() {
+        // utility class
+    }
+
+    /**
+     * Checks if a character is allowed in a URI.
+     *
+     * @param c the character
+     * @return {@code true} if the character is a letter, a digit or one of the URI punctuation characters
+     */
+    public static boolean isUriCharacter(char c) {
+        if (c < 64) {
+            return (LOW >>> c & 1) != 0;
+        }
+        if (c < 128) {
+            return (HIGH >>> (c - 64) & 1) != 0;
+        }
+        return Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Finds the end of the URI starting at an offset, that is the offset after the last character allowed in a URI.
+     *
+     * @param buf the characters
+     * @param start offset of the URI
+     * @param end offset after the last character to look at
+     * @return the end of the URI, or {@code start} if no scheme starts there
+     */
+    public static int uriEnd(char[] buf, int start, int end) {
+        int i = start + schemeLength(buf[start], buf, null, start, end);
+        if (i == start) {
+            return start;
+        }
+        while (i < end && isUriCharacter(buf[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Finds the end of the URI starting at an offset, that is the offset after the last character allowed in a URI.
+     *
+     * @param s the characters
+     * @param start offset of the URI
+     * @param end offset after the last character to look at
+     * @return the end of the URI, or {@code start} if no scheme starts there
+     */
+    public static int uriEnd(CharSequence s, int start, int end) {
+        int i = start + schemeLength(s.charAt(start), null, s, start, end);
+        if (i == start) {
+            return start;
+        }
+        while (i < end && isUriCharacter(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Finds the end of the URI starting at an offset of text escaped for HTML. As the text has no raw {@code &}, an
+     * {@code &} that doesn't start {@code &amp;} starts the entity of a character that isn't allowed in a URI, like
+     * {@code &lt;} or {@code &quot;}, and ends the URI.
+     *
+     * @param s the escaped characters
+     * @param start offset of the URI
+     * @param end offset after the last character to look at
+     * @return the end of the URI, or {@code start} if no scheme starts there
+     */
+    public static int escapedUriEnd(CharSequence s, int start, int end) {
+        int i = start + schemeLength(s.charAt(start), null, s, start, end);
+        if (i == start) {
+            return start;
+        }
+        while (i < end) {
+            char c = s.charAt(i);
+            if (c == '&') {
+                if (!matches(null, s, i, end, "&amp;")) {
+                    break;
+                }
+                i += 5;
+            } else if (isUriCharacter(c)) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Matches {@code http://}, {@code https://} and {@code mailto:} by their first character.
+     */
+    private static int schemeLength(char first, char[] buf, CharSequence s, int start, int end) {
+        switch (first) {
+            case 'h':
+                if (matches(buf, s, start, end, "http://")) {
+                    return 7;
+                }
+                return matches(buf, s, start, end, "https://") ? 8 : 0;
+            case 'm':
+                return matches(buf, s, start, end, "mailto:") ? 7 : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean matches(char[] buf, CharSequence s, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 1; i < prefix.length(); i++) {
+            char c = buf != null ? buf[start + i] : s.charAt(start + i);
+            if (c != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangedFileOutputStreamTest {
+    @Test
+    void onlyChangedContentIsWritten(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("page.html");
+        FileTime time = FileTime.fromMillis(0);
+
+        assertTrue(write(file, "same content"));
+        Files.setLastModifiedTime(file, time);
+        assertFalse(write(file, "same content"));
+        assertEquals(time, Files.getLastModifiedTime(file));
+
+        assertTrue(write(file, "same content, longer"));
+        assertEquals("same content, longer", read(file));
+        assertTrue(write(file, "same"));
+        assertEquals("same", read(file));
+        assertTrue(write(file, "sale"));
+        assertEquals("sale", read(file));
+        assertFalse(Files.exists(tmp.resolve("page.html.tmp")));
+    }
+
+    @Test
+    void incompleteContentIsDiscarded(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("page.html");
+        assertTrue(write(file, "old content"));
+
+        for (String partial : new String[] {"new", "old content, and more", "old"}) {
+            ChangedFileOutputStream stream = new ChangedFileOutputStream(file);
+            try (OutputStream out = stream) {
+                out.write(partial.getBytes(StandardCharsets.UTF_8));
+                // writing fails before the stream is marked complete
+            }
+            assertFalse(stream.isWritten());
+            assertEquals("old content", read(file));
+            assertFalse(Files.exists(tmp.resolve("page.html.tmp")));
+        }
+
+        Path missing = tmp.resolve("missing.html");
+        try (OutputStream out = new ChangedFileOutputStream(missing)) {
+            out.write('x');
+        }
+        assertFalse(Files.exists(missing));
+        assertFalse(Files.exists(tmp.resolve("missing.html.tmp")));
+    }
+
+    private static boolean write(Path file, String content) throws Exception {
+        ChangedFileOutputStream stream = new ChangedFileOutputStream(file);
+        try (OutputStream out = stream) {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            // both a single byte and an array
+            out.write(bytes[0]);
+            out.write(bytes, 1, bytes.length - 1);
+            stream.complete();
+        }
+        return stream.isWritten();
+    }
+
+    private static String read(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
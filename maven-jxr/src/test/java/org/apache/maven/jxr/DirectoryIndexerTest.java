@@ -18,6 +18,9 @@
  */
 package org.apache.maven.jxr;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.Map;
@@ -29,8 +32,10 @@ import org.apache.maven.jxr.pacman.FileManager;
 import org.apache.maven.jxr.pacman.PackageManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DirectoryIndexerTest {
@@ -80,4 +85,32 @@ class DirectoryIndexerTest {
         assertEquals("SomeClass", classInfo.getName());
         assertEquals("pkgb", classInfo.getDir());
     }
+
+    @Test
+    void unchangedPagesAreNotWritten(@TempDir Path tmp) throws Exception {
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        packageManager.process(Paths.get("src/test/resources/jxr68"));
+        Path page = tmp.resolve("pkga/package-summary.html");
+
+        index(packageManager, tmp, "title");
+        assertTrue(Files.exists(tmp.resolve(".jxr-index")));
+        Files.write(page, "kept".getBytes(StandardCharsets.ISO_8859_1));
+
+        index(packageManager, tmp, "title");
+        assertEquals("kept", new String(Files.readAllBytes(page), StandardCharsets.ISO_8859_1));
+
+        // the pages are written again when their settings change
+        index(packageManager, tmp, "other title");
+        assertNotEquals("kept", new String(Files.readAllBytes(page), StandardCharsets.ISO_8859_1));
+    }
+
+    private static void index(PackageManager packageManager, Path root, String docTitle) throws Exception {
+        DirectoryIndexer indexer = new DirectoryIndexer(packageManager, root.toString());
+        indexer.setOutputEncoding("ISO-8859-1");
+        indexer.setTemplateDir("templates/jdk4");
+        indexer.setDocTitle(docTitle);
+        indexer.setFingerprintFile(root.resolve(".jxr-index"));
+        indexer.process();
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HtmlEscaperTest {
+    /**
+     * The escaping done by the chain of replacements the single pass replaced.
+     */
+    private static String replace(String line) {
+        return line.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\\\\", "&#92;&#92;")
+                .replace("\\\"", "\\&quot;")
+                .replace("'\"'", "'&quot;'");
+    }
+
+    @Test
+    void sameAsReplacements() throws Exception {
+        String[] lines = {
+            "a & b", "List<String> l = new ArrayList<>();", "\"a\\\\b\"", "\"\\\"\"", "'\"'", "'\\\"'", "'\"'\"'",
+            "\\\\\\\"", "\\", "\"", "'\"", "x = '\"' + \"&\";"
+        };
+        for (String line : lines) {
+            assertEscaped(line);
+        }
+
+        Random random = new Random(42);
+        char[] chars = {'a', '&', '<', '>', '\\', '"', '\''};
+        for (int n = 0; n < 10000; n++) {
+            char[] line = new char[random.nextInt(12)];
+            for (int i = 0; i < line.length; i++) {
+                line[i] = chars[random.nextInt(chars.length)];
+            }
+            assertEscaped(new String(line));
+        }
+    }
+
+    @Test
+    void plainLineIsNotCopied() {
+        String line = "    int a = 'b' + \"c\";";
+        assertSame(line, HtmlEscaper.escape(line, new StringBuilder()));
+    }
+
+    private static void assertEscaped(String line) throws Exception {
+        assertEquals(replace(line), HtmlEscaper.escape(line, new StringBuilder()), line);
+
+        StringWriter out = new StringWriter();
+        HtmlEscaper.write(("#" + line + "#").toCharArray(), 1, line.length() + 1, out);
+        assertEquals(replace(line), out.toString(), line);
+    }
+}
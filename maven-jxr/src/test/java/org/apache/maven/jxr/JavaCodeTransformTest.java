@@ -22,13 +22,24 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.maven.jxr.pacman.FileManager;
 import org.apache.maven.jxr.pacman.PackageManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -154,4 +165,268 @@ class JavaCodeTransformTest {
         assertTrue(content.contains("<title>UnknownType xref</title>"));
         assertTrue(content.contains("<a href=\"javadocs/example/UnknownType.html\">View Javadoc</a>"));
     }
+
+    /**
+     * Test that the lexer engine renders the same as the filters.
+     */
+    @Test
+    void lexerEngine() throws Exception {
+        Path sourceFile = Paths.get("src/test/java/org/apache/maven/jxr/JavaCodeTransformTest.java");
+        Path filtersFile = Paths.get("target/JavaCodeTransformTest-filters.html");
+        Path lexerFile = Paths.get("target/JavaCodeTransformTest-lexer.html");
+
+        codeTransform.transform(
+                sourceFile, filtersFile, Locale.ENGLISH, "ISO-8859-1", "ISO-8859-1", Paths.get("."), "", "");
+        codeTransform.setEngine(JavaCodeTransform.Engine.LEXER);
+        codeTransform.transform(
+                sourceFile, lexerFile, Locale.ENGLISH, "ISO-8859-1", "ISO-8859-1", Paths.get("."), "", "");
+
+        String filters = new String(Files.readAllBytes(filtersFile), StandardCharsets.ISO_8859_1);
+        String lexer = new String(Files.readAllBytes(lexerFile), StandardCharsets.ISO_8859_1);
+        assertTrue(lexer.contains("<strong class=\"jxr_keyword\">void</strong> lexerEngine()"));
+        assertTrue(lexer.contains("<em class=\"jxr_comment\">// single line despite /*</em>"));
+        assertEquals(filters, lexer);
+    }
+
+    /**
+     * Test that the lexer engine renders the same as the filters with the symbols of the sources, apart from the
+     * differences documented on {@link JavaCodeTransform.Engine#LEXER}.
+     */
+    @Test
+    void lexerEngineWithSymbols(@TempDir Path tmp) throws Exception {
+        Path gaps = tmp.resolve("src/pkg/Gaps.java");
+        Files.createDirectories(gaps.getParent());
+        Files.write(
+                gaps,
+                Arrays.asList(
+                        "package pkg;",
+                        "public class Gaps {",
+                        "    Gaps copy(Gaps this_in) { char char2 = 'a'; return this_in; }",
+                        "    Gaps other() { return new Gaps(); } /* block */",
+                        "    String text = \"\"\"",
+                        "        new Gaps() for \"this\"",
+                        "        \"\"\";",
+                        "}"),
+                StandardCharsets.ISO_8859_1);
+        List<Path> sourceFiles;
+        try (Stream<Path> files = Files.walk(Paths.get("src/main/java"))) {
+            sourceFiles = files.filter(f -> f.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        sourceFiles.add(gaps);
+
+        for (JavaCodeTransform.Engine engine : JavaCodeTransform.Engine.values()) {
+            FileManager fileManager = new FileManager();
+            PackageManager packageManager = new PackageManager(fileManager);
+            JavaCodeTransform transform = new JavaCodeTransform(packageManager, fileManager);
+            transform.setEngine(engine);
+            packageManager.process(Paths.get("src/main/java"));
+            packageManager.process(Paths.get("src/test/java"));
+            packageManager.process(gaps.getParent().getParent());
+            for (int i = 0; i < sourceFiles.size(); i++) {
+                Path destFile = tmp.resolve(engine + "/" + i + ".html");
+                transform.transform(
+                        sourceFiles.get(i), destFile, Locale.ENGLISH, "ISO-8859-1", "ISO-8859-1", null, "", "");
+            }
+        }
+
+        String link = "<a name=\"PackageManager\" href=\"../../../../org/apache/maven/jxr/pacman/PackageManager.html"
+                + "#PackageManager\">PackageManager</a>";
+        for (int i = 0; i < sourceFiles.size() - 1; i++) {
+            String filters = read(tmp.resolve("FILTERS/" + i + ".html"));
+            String lexer = read(tmp.resolve("LEXER/" + i + ".html"));
+            assertEquals(filters, lexer, sourceFiles.get(i).toString());
+            if (sourceFiles.get(i).endsWith("JXR.java")) {
+                assertTrue(lexer.contains(link));
+            }
+        }
+
+        // the filters highlight the keywords that start an identifier, don't link a line with a block comment, and
+        // highlight and link the words of a text block
+        int last = sourceFiles.size() - 1;
+        List<String> filters =
+                Files.readAllLines(tmp.resolve("FILTERS/" + last + ".html"), StandardCharsets.ISO_8859_1);
+        List<String> lexer = Files.readAllLines(tmp.resolve("LEXER/" + last + ".html"), StandardCharsets.ISO_8859_1);
+        assertEquals(filters.size(), lexer.size());
+        List<Integer> differences = new ArrayList<>();
+        for (int i = 0; i < filters.size(); i++) {
+            if (!filters.get(i).equals(lexer.get(i))) {
+                differences.add(i);
+            }
+        }
+        assertEquals(5, differences.size());
+        String copy = filters.get(differences.get(0));
+        assertTrue(copy.contains("<strong class=\"jxr_keyword\">this</strong>_in)"), copy);
+        assertTrue(copy.contains("<strong class=\"jxr_keyword\">char</strong>2 ="), copy);
+        copy = lexer.get(differences.get(0));
+        assertTrue(copy.contains(" this_in)") && copy.contains(" char2 ="), copy);
+        String gapsLink = "<a name=\"Gaps\" href=\"../pkg/Gaps.html#Gaps\">Gaps</a>";
+        assertFalse(filters.get(differences.get(1)).contains(gapsLink), filters.get(differences.get(1)));
+        assertTrue(lexer.get(differences.get(1)).contains(gapsLink), lexer.get(differences.get(1)));
+        String text = filters.get(differences.get(3));
+        assertTrue(text.contains("<strong class=\"jxr_keyword\">new</strong> " + gapsLink), text);
+        for (int i = 2; i < 5; i++) {
+            text = lexer.get(differences.get(i));
+            assertTrue(text.contains("<span class=\"jxr_string\">"), text);
+            assertFalse(text.contains("jxr_keyword") || text.contains(gapsLink), text);
+        }
+        text = lexer.get(differences.get(3));
+        assertTrue(text.contains("<span class=\"jxr_string\">        new Gaps() for \"this\"</span>"), text);
+    }
+
+    private static String read(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Test that a supplementary character read into the last free slot of the buffer of the lexer engine is kept,
+     * with the rest of the file.
+     */
+    @Test
+    void supplementaryCharacter(@TempDir Path tmp) throws Exception {
+        StringBuilder source = new StringBuilder("// ");
+        while (source.length() < 8191) {
+            source.append('a');
+        }
+        source.append("\ud83d\ude00 ok\nclass A {}\n");
+        Path sourceFile = tmp.resolve("A.java");
+        Files.write(sourceFile, source.toString().getBytes(StandardCharsets.UTF_8));
+
+        for (JavaCodeTransform.Engine engine : JavaCodeTransform.Engine.values()) {
+            FileManager fileManager = new FileManager();
+            JavaCodeTransform transform = new JavaCodeTransform(new PackageManager(fileManager), fileManager);
+            transform.setEngine(engine);
+            // read the file while rendering it, rather than from the source cache
+            fileManager.setSourceCacheSize(0);
+            Path destFile = tmp.resolve("A-" + engine + ".html");
+            transform.transform(sourceFile, destFile, Locale.ENGLISH, "UTF-8", "UTF-8", null, "", "");
+
+            String content = new String(Files.readAllBytes(destFile), StandardCharsets.UTF_8);
+            assertTrue(content.contains("a\ud83d\ude00 ok</em>"), engine.toString());
+            assertTrue(content.contains("<strong class=\"jxr_keyword\">class</strong> A {}"), engine.toString());
+        }
+    }
+
+    /**
+     * Test that the filters can be entered at any stage.
+     */
+    @Test
+    void filterStages() {
+        Path sourceFile = Paths.get("src/test/java/org/apache/maven/jxr/JavaCodeTransformTest.java");
+        String[] lines = {"if (a < b) { // \"void\"", "    return;"};
+
+        assertArrayEquals(
+                new String[] {
+                    "<strong class=\"jxr_keyword\">if</strong> (a &lt; b) { <em class=\"jxr_comment\">// \"void\"</em>",
+                    "    <strong class=\"jxr_keyword\">return</strong>;"
+                },
+                codeTransform.filter(sourceFile, JavaCodeTransform.FilterStage.HTML, lines));
+        assertArrayEquals(
+                new String[] {
+                    "<strong class=\"jxr_keyword\">if</strong> (a < b) { // <span class=\"jxr_string\">\"void\"</span>",
+                    "    <strong class=\"jxr_keyword\">return</strong>;"
+                },
+                codeTransform.filter(sourceFile, JavaCodeTransform.FilterStage.STRING, lines));
+        assertArrayEquals(lines, codeTransform.filter(sourceFile, JavaCodeTransform.FilterStage.URI, lines));
+    }
+
+    /**
+     * Test that every URI of a line is linked, whatever its scheme.
+     */
+    @Test
+    void uriFilter() {
+        Path sourceFile = Paths.get("src/test/java/org/apache/maven/jxr/JavaCodeTransformTest.java");
+        String[] lines = {"see http://a.org/x, http://b.org and mailto:dev@maven.apache.org. http://a.org/"};
+
+        assertArrayEquals(
+                new String[] {
+                    "see <a href=\"http://a.org/x,\" target=\"alexandria_uri\">http://a.org/x,</a> "
+                            + "<a href=\"http://b.org\" target=\"alexandria_uri\">http://b.org</a> and "
+                            + "<a href=\"mailto:dev@maven.apache.org.\" target=\"alexandria_uri\">"
+                            + "mailto:dev@maven.apache.org.</a> "
+                            + "<a href=\"http://a.org/\" target=\"alexandria_uri\">http://a.org/</a>"
+                },
+                codeTransform.filter(sourceFile, JavaCodeTransform.FilterStage.URI, lines));
+    }
+
+    /**
+     * Test that a link written in a javadoc comment doesn't take its closing tag into the URI, with both engines.
+     */
+    @Test
+    void javadocLink(@TempDir Path tmp) throws Exception {
+        Path sourceFile = tmp.resolve("A.java");
+        Files.write(
+                sourceFile,
+                Arrays.asList(
+                        "/**",
+                        " * See <a href=\"http://www.unicode.org\">http://www.unicode.org</a>.",
+                        " */",
+                        "class A {}"),
+                StandardCharsets.ISO_8859_1);
+
+        for (JavaCodeTransform.Engine engine : JavaCodeTransform.Engine.values()) {
+            codeTransform.setEngine(engine);
+            Path destFile = tmp.resolve("A-" + engine + ".html");
+            codeTransform.transform(sourceFile, destFile, Locale.ENGLISH, "ISO-8859-1", "ISO-8859-1", null, "", "");
+
+            String content = new String(Files.readAllBytes(destFile), StandardCharsets.ISO_8859_1);
+            String link = "<a href=\"http://www.unicode.org\" target=\"alexandria_uri\">http://www.unicode.org</a>";
+            // only the lexer engine escapes the quotes
+            assertTrue(content.contains(" * See &lt;a href="), engine.toString());
+            assertTrue(content.contains(link + "\"&gt;") || content.contains(link + "&quot;&gt;"), engine.toString());
+            assertTrue(content.contains("&gt;" + link + "&lt;/a&gt;."), engine.toString());
+        }
+    }
+
+    /**
+     * Test that all the classes of a line are linked, each of their occurrences.
+     */
+    @Test
+    void jxrFilter() {
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        packageManager.process(Paths.get("src/main/java"));
+        codeTransform = new JavaCodeTransform(packageManager, fileManager);
+
+        Path sourceFile = Paths.get("src/main/java/org/apache/maven/jxr/JXR.java");
+        String[] lines = {"JavaFile file = new JavaFile(PackageManager.get(FileManager {JavaFile} StringEntry))"};
+
+        String javaFile = "<a name=\"JavaFile\" "
+                + "href=\"../../../../org/apache/maven/jxr/pacman/JavaFile.html#JavaFile\">JavaFile</a>";
+        assertArrayEquals(
+                new String[] {
+                    javaFile + " file = new " + javaFile + "(PackageManager.get("
+                            + "<a name=\"FileManager\" href=\"../../../../org/apache/maven/jxr/pacman/FileManager.html"
+                            + "#FileManager\">FileManager</a> {" + javaFile + "} StringEntry))"
+                },
+                codeTransform.filter(sourceFile, JavaCodeTransform.FilterStage.JXR, lines));
+    }
+
+    /**
+     * Test that a long line, as found in generated code, is rendered in linear time.
+     */
+    @Test
+    void longLine(@TempDir Path tmp) throws Exception {
+        StringBuilder line = new StringBuilder("package big; public class Big { static final Object[] DATA = {");
+        for (int i = 0; line.length() < 1024 * 1024; i++) {
+            line.append("\"item \\\"").append(i).append("\\\" /* not a comment */\", '\"', new int[] {").append(i);
+            line.append("}, ");
+        }
+        line.append("}; } // http://maven.apache.org/");
+        Path sourceFile = tmp.resolve("Big.java");
+        Files.write(sourceFile, line.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        for (JavaCodeTransform.Engine engine : JavaCodeTransform.Engine.values()) {
+            codeTransform.setEngine(engine);
+            Path destFile = tmp.resolve("Big-" + engine + ".html");
+            assertTimeoutPreemptively(
+                    Duration.ofSeconds(10),
+                    () -> codeTransform.transform(
+                            sourceFile, destFile, Locale.ENGLISH, "ISO-8859-1", "ISO-8859-1", null, "", ""));
+
+            String content = new String(Files.readAllBytes(destFile), StandardCharsets.ISO_8859_1);
+            assertTrue(content.contains(
+                    "<span class=\"jxr_string\">\"item \\&quot;0\\&quot; /* not a comment */\"</span>"));
+            assertTrue(content.contains("<em class=\"jxr_comment\">// "));
+        }
+    }
 }
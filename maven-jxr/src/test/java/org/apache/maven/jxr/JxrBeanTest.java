@@ -18,13 +18,30 @@
  */
 package org.apache.maven.jxr;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.maven.jxr.pacman.FileManager;
 import org.apache.maven.jxr.pacman.PackageManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class JxrBeanTest {
     private JXR jxrBean;
@@ -45,4 +62,332 @@ class JxrBeanTest {
     void xref() throws Exception {
         jxrBean.xref(Collections.singletonList("src/test/java"), "templates/jdk4", "title", "title", "copyright");
     }
+
+    @Test
+    void xrefWithSeveralThreads() throws Exception {
+        Path serialDir = Paths.get("target/jxr-threads-1");
+        Path concurrentDir = Paths.get("target/jxr-threads-4");
+
+        newJxr(serialDir, 1)
+                .xref(Collections.singletonList("src/test/java"), "templates/jdk4", "title", "title", "copyright");
+        newJxr(concurrentDir, 4)
+                .xref(Collections.singletonList("src/test/java"), "templates/jdk4", "title", "title", "copyright");
+
+        List<Path> serialFiles = listFiles(serialDir);
+        assertFalse(serialFiles.isEmpty());
+        assertEquals(serialFiles, listFiles(concurrentDir));
+        for (Path file : serialFiles) {
+            assertArrayEquals(
+                    Files.readAllBytes(serialDir.resolve(file)),
+                    Files.readAllBytes(concurrentDir.resolve(file)),
+                    file.toString());
+        }
+    }
+
+    @Test
+    void incrementalXref(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        Path a = write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path b = write(src.resolve("pkgb/B.java"), "package pkgb;", "import pkga.*;", "public class B extends A {}");
+        write(src.resolve("pkgb/C.java"), "package pkgb;", "public class C {}");
+        Path pageA = dest.resolve("pkga/A.html");
+        Path pageB = dest.resolve("pkgb/B.html");
+        Path pageC = dest.resolve("pkgb/C.html");
+
+        xref(dest, src, true);
+        assertTrue(Files.exists(dest.resolve(XrefManifest.FILENAME)));
+        assertTrue(new String(Files.readAllBytes(pageB), StandardCharsets.ISO_8859_1).contains("A.html#A"));
+
+        // the pages that are up to date are kept as they are
+        Files.write(pageA, "kept".getBytes(StandardCharsets.ISO_8859_1));
+        Files.write(pageB, "kept".getBytes(StandardCharsets.ISO_8859_1));
+        Files.write(pageC, "kept".getBytes(StandardCharsets.ISO_8859_1));
+        xref(dest, src, true);
+        assertEquals("kept", new String(Files.readAllBytes(pageA), StandardCharsets.ISO_8859_1));
+        assertEquals("kept", new String(Files.readAllBytes(pageB), StandardCharsets.ISO_8859_1));
+
+        // a changed source and the pages linking to the changed classes are generated again
+        write(a, "package pkga;", "public class A2 {}");
+        xref(dest, src, true);
+        assertNotEquals("kept", new String(Files.readAllBytes(pageA), StandardCharsets.ISO_8859_1));
+        assertNotEquals("kept", new String(Files.readAllBytes(pageB), StandardCharsets.ISO_8859_1));
+        assertEquals("kept", new String(Files.readAllBytes(pageC), StandardCharsets.ISO_8859_1));
+
+        // a class that the pages importing its package don't mention doesn't change their links
+        Files.write(pageB, "kept".getBytes(StandardCharsets.ISO_8859_1));
+        write(src.resolve("pkga/D.java"), "package pkga;", "public class D {}");
+        xref(dest, src, true);
+        assertTrue(Files.exists(dest.resolve("pkga/D.html")));
+        assertEquals("kept", new String(Files.readAllBytes(pageB), StandardCharsets.ISO_8859_1));
+
+        // the page of a removed source is removed
+        Files.delete(b);
+        xref(dest, src, true);
+        assertFalse(Files.exists(pageB));
+        assertTrue(Files.exists(pageC));
+
+        // a full run generates everything again
+        xref(dest, src, false);
+        assertNotEquals("kept", new String(Files.readAllBytes(pageC), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void refresh(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        Path a = write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path b = write(src.resolve("pkgb/B.java"), "package pkgb;", "import pkga.*;", "public class B extends A {}");
+        Path c = write(src.resolve("pkgb/C.java"), "package pkgb;", "public class C {}");
+        Path pageA = dest.resolve("pkga/A.html");
+        Path pageB = dest.resolve("pkgb/B.html");
+        Path pageC = dest.resolve("pkgb/C.html");
+        Path frameB = dest.resolve("pkgb/package-frame.html");
+
+        JXR jxr = newJxr(dest, 1);
+        jxr.setJavadocLinkDir(null);
+        jxr.setIncremental(true);
+        List<String> sourceDirs = Collections.singletonList(src.toString());
+        jxr.xref(sourceDirs, "templates/jdk4", "title", "title", "");
+        Files.write(pageA, "kept".getBytes(StandardCharsets.ISO_8859_1));
+        Files.write(pageB, "kept".getBytes(StandardCharsets.ISO_8859_1));
+        Files.write(pageC, "kept".getBytes(StandardCharsets.ISO_8859_1));
+
+        // only the refreshed files are read again
+        write(a, "package pkga;", "public class A2 {}");
+        write(c, "package pkgb;", "public class C2 {}");
+        jxr.refresh(Collections.singletonList(a));
+        jxr.xref(sourceDirs, "templates/jdk4", "title", "title", "");
+        assertTrue(new String(Files.readAllBytes(pageA), StandardCharsets.ISO_8859_1).contains("A2"));
+        assertNotEquals("kept", new String(Files.readAllBytes(pageB), StandardCharsets.ISO_8859_1));
+        assertEquals("kept", new String(Files.readAllBytes(pageC), StandardCharsets.ISO_8859_1));
+        assertFalse(new String(Files.readAllBytes(frameB), StandardCharsets.ISO_8859_1).contains("C2"));
+
+        // the files of a new directory, and a removed file
+        write(src.resolve("pkgd/D.java"), "package pkgd;", "public class D {}");
+        Files.delete(b);
+        jxr.refresh(Arrays.asList(src.resolve("pkgd"), b));
+        jxr.xref(sourceDirs, "templates/jdk4", "title", "title", "");
+        assertTrue(Files.exists(dest.resolve("pkgd/D.html")));
+        assertFalse(Files.exists(pageB));
+        assertFalse(new String(Files.readAllBytes(frameB), StandardCharsets.ISO_8859_1).contains("B.html"));
+
+        // all the files are checked again
+        jxr.refresh(null);
+        jxr.xref(sourceDirs, "templates/jdk4", "title", "title", "");
+        assertTrue(new String(Files.readAllBytes(pageC), StandardCharsets.ISO_8859_1).contains("C2"));
+        assertTrue(new String(Files.readAllBytes(frameB), StandardCharsets.ISO_8859_1).contains("C2"));
+    }
+
+    @Test
+    void writeIfChanged(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        Path a = write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path pageA = dest.resolve("pkga/A.html");
+        Path summary = dest.resolve("pkga/package-summary.html");
+        FileTime time = FileTime.fromMillis(0);
+
+        xref(dest, src, false);
+        Files.setLastModifiedTime(pageA, time);
+        Files.setLastModifiedTime(summary, time);
+
+        JXR jxr = newJxr(dest, 1);
+        jxr.setJavadocLinkDir(null);
+        jxr.setWriteIfChanged(true);
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+        assertEquals(time, Files.getLastModifiedTime(pageA));
+        assertEquals(time, Files.getLastModifiedTime(summary));
+
+        write(a, "package pkga;", "public class A { int a; }");
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+        assertNotEquals(time, Files.getLastModifiedTime(pageA));
+        assertEquals(time, Files.getLastModifiedTime(summary));
+    }
+
+    @Test
+    void checksums(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path b = write(src.resolve("pkgb/B.java"), "package pkgb;", "public class B {}");
+        Path list = dest.resolve(ChecksumManifest.FILENAME);
+
+        JXR jxr = newJxr(dest, 1);
+        jxr.setJavadocLinkDir(null);
+        jxr.setIncremental(true);
+        jxr.setChecksums(true);
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+        List<String> lines = Files.readAllLines(list, StandardCharsets.UTF_8);
+        byte[] page = Files.readAllBytes(dest.resolve("pkga/A.html"));
+        String hash = sha256(page);
+        assertTrue(lines.contains("F\tpkga/A.html\t" + page.length + '\t' + hash));
+        assertTrue(lines.contains("F\tpkgb/package-summary.html\t"
+                + Files.size(dest.resolve("pkgb/package-summary.html")) + '\t'
+                + sha256(Files.readAllBytes(dest.resolve("pkgb/package-summary.html")))));
+        assertTrue(lines.contains("F\tindex.html\t" + Files.size(dest.resolve("index.html")) + '\t'
+                + sha256(Files.readAllBytes(dest.resolve("index.html")))));
+
+        // the pages that are kept are still listed, the removed ones are listed as removed
+        Files.delete(b);
+        jxr = newJxr(dest, 1);
+        jxr.setJavadocLinkDir(null);
+        jxr.setIncremental(true);
+        jxr.setChecksums(true);
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+        lines = Files.readAllLines(list, StandardCharsets.UTF_8);
+        assertTrue(lines.contains("F\tpkga/A.html\t" + page.length + '\t' + hash));
+        assertTrue(lines.contains("R\tpkgb/B.html"));
+        assertFalse(lines.stream().anyMatch(line -> line.startsWith("F\tpkgb/B.html")));
+    }
+
+    @Test
+    void resources(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path stylesheet = write(tmp.resolve("style.css"), "body {}");
+        Path copy = dest.resolve("stylesheet.css");
+        Path list = dest.resolve(ChecksumManifest.FILENAME);
+        FileTime time = FileTime.fromMillis(0);
+
+        JXR jxr = newJxr(dest, 1);
+        jxr.setJavadocLinkDir(null);
+        jxr.setChecksums(true);
+        jxr.addResource("stylesheet.css", stylesheet.toUri().toURL());
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+        byte[] content = Files.readAllBytes(stylesheet);
+        assertArrayEquals(content, Files.readAllBytes(copy));
+        assertTrue(Files.readAllLines(list, StandardCharsets.UTF_8)
+                .contains("F\tstylesheet.css\t" + content.length + '\t' + sha256(content)));
+
+        // an unchanged resource is not written again, a changed one is
+        Files.setLastModifiedTime(copy, time);
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+        assertEquals(time, Files.getLastModifiedTime(copy));
+        assertTrue(Files.readAllLines(list, StandardCharsets.UTF_8)
+                .contains("F\tstylesheet.css\t" + content.length + '\t' + sha256(content)));
+
+        write(stylesheet, "body { color: red }");
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+        content = Files.readAllBytes(stylesheet);
+        assertArrayEquals(content, Files.readAllBytes(copy));
+        assertTrue(Files.readAllLines(list, StandardCharsets.UTF_8)
+                .contains("F\tstylesheet.css\t" + content.length + '\t' + sha256(content)));
+    }
+
+    @Test
+    void changedFiles(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path b = write(src.resolve("pkgb/B.java"), "package pkgb;", "import pkga.A;", "public class B extends A {}");
+        Path list = write(tmp.resolve("changed.txt"), "# changed files", "src/pkgb/B.java", "src/pkgb/Deleted.java");
+
+        JXR jxr = newJxr(dest, 1);
+        jxr.setJavadocLinkDir(null);
+        jxr.setChangedFiles(ChangedFiles.read(list, tmp));
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+
+        // only the changed file is rendered, linked to the classes of the unchanged ones
+        assertFalse(Files.exists(dest.resolve("pkga/A.html")));
+        assertTrue(new String(Files.readAllBytes(dest.resolve("pkgb/B.html")), StandardCharsets.ISO_8859_1)
+                .contains("A.html#A"));
+        assertTrue(Files.exists(dest.resolve("pkga/package-summary.html")));
+        assertTrue(Files.exists(b));
+    }
+
+    @Test
+    void skippedSourcesAreNotCached(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        Path a = write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path b = write(src.resolve("pkgb/B.java"), "package pkgb;", "import pkga.A;", "public class B extends A {}");
+        List<String> sourceDirs = Collections.singletonList(src.toString());
+
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        JavaCodeTransform codeTransform = new JavaCodeTransform(packageManager, fileManager);
+        codeTransform.setEngine(JavaCodeTransform.Engine.LEXER);
+        JXR jxr = new JXR(packageManager, codeTransform);
+        jxr.setDest(dest);
+        jxr.setInputEncoding("ISO-8859-1");
+        jxr.setOutputEncoding("ISO-8859-1");
+        jxr.setIncremental(true);
+        jxr.xref(sourceDirs, "templates/jdk4", "title", "title", "");
+
+        // a saved file whose page is up to date
+        jxr.refresh(Collections.singletonList(a));
+        jxr.xref(sourceDirs, "templates/jdk4", "title", "title", "");
+        assertNull(fileManager.takeSource(a.toRealPath(), "ISO-8859-1"));
+
+        // a file that isn't among the changed files
+        jxr.setIncremental(false);
+        jxr.setChangedFiles(Collections.singletonList(b));
+        jxr.refresh(null);
+        jxr.xref(sourceDirs, "templates/jdk4", "title", "title", "");
+        assertNull(fileManager.takeSource(a.toRealPath(), "ISO-8859-1"));
+        assertNull(fileManager.takeSource(b.toRealPath(), "ISO-8859-1"));
+    }
+
+    @Test
+    void inputEncoding(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        Files.createDirectories(src.resolve("pkga"));
+        Files.createDirectories(src.resolve("pkgb"));
+        Files.write(
+                src.resolve("pkga/A.java"),
+                Arrays.asList("package pkga;", "public class A {}"),
+                StandardCharsets.UTF_16);
+        Files.write(
+                src.resolve("pkgb/B.java"),
+                Arrays.asList("package pkgb;", "import pkga.A;", "public class B extends A {}"),
+                StandardCharsets.UTF_16);
+
+        // the files are parsed with the input encoding too, so the classes are found and linked
+        JXR jxr = newJxr(dest, 1);
+        jxr.setJavadocLinkDir(null);
+        jxr.setInputEncoding("UTF-16");
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+
+        String b = new String(Files.readAllBytes(dest.resolve("pkgb/B.html")), StandardCharsets.ISO_8859_1);
+        assertTrue(b.contains("<a name=\"A\" href=\"../pkga/A.html#A\">A</a>"));
+    }
+
+    private static String sha256(byte[] content) {
+        MessageDigest digest = XrefManifest.newDigest();
+        digest.update(content);
+        return XrefManifest.toHex(digest);
+    }
+
+    private static void xref(Path dest, Path src, boolean incremental) throws Exception {
+        JXR jxr = newJxr(dest, 1);
+        jxr.setJavadocLinkDir(null);
+        jxr.setIncremental(incremental);
+        jxr.xref(Collections.singletonList(src.toString()), "templates/jdk4", "title", "title", "");
+    }
+
+    private static Path write(Path file, String... lines) throws Exception {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, Arrays.asList(lines), StandardCharsets.ISO_8859_1);
+    }
+
+    private static JXR newJxr(Path dest, int threadCount) {
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        JXR jxr = new JXR(packageManager, new JavaCodeTransform(packageManager, fileManager));
+        jxr.setDest(dest);
+        jxr.setInputEncoding("ISO-8859-1");
+        jxr.setOutputEncoding("ISO-8859-1");
+        jxr.setJavadocLinkDir(Paths.get("."));
+        jxr.setThreadCount(threadCount);
+        return jxr;
+    }
+
+    private static List<Path> listFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).map(dir::relativize).sorted().collect(Collectors.toList());
+        }
+    }
 }
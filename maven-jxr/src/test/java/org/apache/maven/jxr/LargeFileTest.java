@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.apache.maven.jxr.pacman.FileManager;
+import org.apache.maven.jxr.pacman.PackageManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renders a generated source with a heap smaller than the source and its page, which is set by the
+ * {@code large-file-test} execution of the build. The {@code large-file} profile renders a million lines with a larger
+ * heap.
+ */
+class LargeFileTest {
+    private static final int LINES = Integer.getInteger("largeFile.lines", 120_000);
+
+    @TempDir
+    static Path tmp;
+
+    private static Path sourceFile;
+
+    @BeforeAll
+    static void writeSource() throws IOException {
+        sourceFile = tmp.resolve("big/Big.java");
+        Files.createDirectories(sourceFile.getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(sourceFile, StandardCharsets.ISO_8859_1)) {
+            out.write("package big;\n\npublic class Big {\n");
+            for (int i = 4; i < LINES; i++) {
+                out.write("    static final Big B" + i + " = new Big(\"" + i + "\"); // http://maven.apache.org/\n");
+            }
+            out.write("}\n");
+        }
+    }
+
+    @Test
+    void filters() throws IOException {
+        render(JavaCodeTransform.Engine.FILTERS);
+    }
+
+    @Test
+    void lexer() throws IOException {
+        render(JavaCodeTransform.Engine.LEXER);
+    }
+
+    private void render(JavaCodeTransform.Engine engine) throws IOException {
+        long heap = Runtime.getRuntime().maxMemory();
+        assertTrue(Files.size(sourceFile) > heap, "the heap of " + heap + " bytes is larger than the source");
+
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        JavaCodeTransform codeTransform = new JavaCodeTransform(packageManager, fileManager);
+        codeTransform.setEngine(engine);
+        packageManager.process(tmp);
+
+        Path destFile = tmp.resolve("Big-" + engine + ".html");
+        codeTransform.transform(sourceFile, destFile, Locale.ENGLISH, "ISO-8859-1", "ISO-8859-1", null, "", "");
+
+        String end = tail(destFile, 4096);
+        assertTrue(end.contains("name=\"L" + LINES + "\""));
+        assertTrue(end.contains("<a name=\"Big\" href=\"../big/Big.html#Big\">Big</a>"));
+        assertTrue(end.endsWith("</html>" + System.lineSeparator()));
+    }
+
+    private static String tail(Path file, int length) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            ByteBuffer buf = ByteBuffer.allocate(length);
+            channel.position(channel.size() - length);
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                // read the end of the file
+            }
+            return new String(buf.array(), 0, buf.position(), StandardCharsets.ISO_8859_1);
+        }
+    }
+}
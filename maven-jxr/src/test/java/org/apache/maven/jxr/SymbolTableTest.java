@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.nio.file.Paths;
+
+import org.apache.maven.jxr.pacman.FileManager;
+import org.apache.maven.jxr.pacman.JavaFile;
+import org.apache.maven.jxr.pacman.PackageManager;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SymbolTableTest {
+    @Test
+    void resolve() throws Exception {
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        packageManager.process(Paths.get("src/test/resources/jxr68"));
+        JavaFile javaFile = fileManager.getFile(Paths.get("src/test/resources/jxr68/pkga/BClass.java"));
+
+        SymbolTable symbols = new SymbolTable(packageManager, javaFile, "../", new HrefCache());
+
+        SymbolTable.Symbol someClass = symbols.resolve("new SomeClass()", 4, 13);
+        assertEquals("SomeClass", someClass.getName());
+        assertEquals("../pkga/SomeClass.html#SomeClass", someClass.getHref());
+        assertEquals(
+                "<a name=\"SomeClass\" href=\"../pkga/SomeClass.html#SomeClass\">SomeClass</a>", someClass.getLink());
+        assertSame(someClass, symbols.resolve("SomeClass".toCharArray(), 0, 9));
+
+        // not imported
+        assertNull(symbols.resolve("AClass", 0, 6));
+
+        String qualified = "pkgb.AClass";
+        SymbolTable.Symbol aClass = symbols.resolveQualified(qualified, 0, 4, qualified.length());
+        assertEquals("../pkgb/AClass.html#AClass", aClass.getHref());
+        assertSame(aClass, symbols.resolveQualified(qualified, 0, 4, qualified.length()));
+        assertNull(symbols.resolveQualified("pkgc.AClass", 0, 4, qualified.length()));
+    }
+
+    @Test
+    void reparsedClassesShareLinks() throws Exception {
+        HrefCache hrefCache = new HrefCache();
+        SymbolTable.Symbol first = null;
+        for (int i = 0; i < 2; i++) {
+            // parsing the files again creates new classes, which have the same links
+            FileManager fileManager = new FileManager();
+            PackageManager packageManager = new PackageManager(fileManager);
+            packageManager.process(Paths.get("src/test/resources/jxr68"));
+            JavaFile javaFile = fileManager.getFile(Paths.get("src/test/resources/jxr68/pkga/BClass.java"));
+
+            SymbolTable.Symbol someClass =
+                    new SymbolTable(packageManager, javaFile, "../", hrefCache).resolve("SomeClass", 0, 9);
+            if (first == null) {
+                first = someClass;
+            } else {
+                assertSame(first, someClass);
+            }
+        }
+    }
+}
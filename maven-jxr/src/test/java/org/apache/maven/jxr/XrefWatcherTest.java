@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.jxr.pacman.FileManager;
+import org.apache.maven.jxr.pacman.PackageManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XrefWatcherTest {
+    @Test
+    void changedSourcesAreRenderedAgain(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path pageB = dest.resolve("pkgb/B.html");
+
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = new PackageManager(fileManager);
+        JXR jxr = new JXR(packageManager, new JavaCodeTransform(packageManager, fileManager));
+        jxr.setDest(dest);
+        jxr.setInputEncoding("ISO-8859-1");
+        jxr.setOutputEncoding("ISO-8859-1");
+        XrefWatcher watcher = new XrefWatcher(
+                jxr,
+                Collections.singletonList(src.toString()),
+                "templates/jdk4",
+                "title",
+                "title",
+                "");
+        watcher.setQuietPeriod(10);
+        Thread thread = new Thread(() -> {
+            try {
+                watcher.watch();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        try {
+            assertTrue(await(dest.resolve("pkga/A.html"), "A"));
+
+            // a new directory is watched, and its sources are linked to the known classes
+            write(src.resolve("pkgb/B.java"), "package pkgb;", "import pkga.A;", "public class B extends A {}");
+            assertTrue(await(pageB, "A.html#A"));
+
+            // a changed class is linked by the pages of the unchanged files, a removed source has no page
+            write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}", "class A2 {}");
+            write(src.resolve("pkgb/B.java"), "package pkgb;", "import pkga.*;", "public class B extends A2 {}");
+            assertTrue(await(pageB, "A.html#A2"));
+            Files.delete(src.resolve("pkgb/B.java"));
+            assertTrue(awaitRemoval(pageB));
+        } finally {
+            watcher.close();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        assertFalse(thread.isAlive());
+    }
+
+    @Test
+    void main(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dest = tmp.resolve("xref");
+        write(src.resolve("pkga/A.java"), "package pkga;", "public class A {}");
+        Path stylesheet = tmp.resolve("style.css");
+        write(stylesheet, "body {}");
+
+        XrefWatcher.main(new String[] {
+            "-once", "-locale", "fr", "-stylesheet", stylesheet.toString(), dest.toString(), src.toString()
+        });
+        assertTrue(new String(Files.readAllBytes(dest.resolve("pkga/A.html")), StandardCharsets.UTF_8)
+                .contains("lang=\"fr\""));
+        assertEquals("body {}", new String(Files.readAllBytes(dest.resolve("stylesheet.css")), StandardCharsets.UTF_8)
+                .trim());
+
+        assertThrows(IllegalArgumentException.class, () -> XrefWatcher.main(new String[] {dest.toString()}));
+        assertThrows(IllegalArgumentException.class, () -> XrefWatcher.main(new String[] {"-unknown", "x", "y"}));
+    }
+
+    /**
+     * Waits for a page to contain some text.
+     */
+    private static boolean await(Path page, String text) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            if (Files.exists(page)
+                    && new String(Files.readAllBytes(page), StandardCharsets.ISO_8859_1).contains(text)) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private static boolean awaitRemoval(Path page) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            if (!Files.exists(page)) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private static void write(Path file, String... lines) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.asList(lines), StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.pacman;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.jxr.util.JavaSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileManagerTest {
+    @Test
+    void getFileParsesOnce() throws Exception {
+        FileManager fileManager = new FileManager();
+        Path path = Paths.get("src/test/resources/jxr135/org/apache/maven/jxr/pacman/ClassWithNested.java");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<JavaFile>> tasks = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                tasks.add(() -> fileManager.getFile(path));
+            }
+
+            List<Future<JavaFile>> results = executor.invokeAll(tasks);
+            JavaFile first = results.get(0).get();
+            for (Future<JavaFile> result : results) {
+                assertSame(first, result.get());
+            }
+            assertSame(first, fileManager.getFile(path));
+            assertEquals("ClassWithNested", first.getClassType().getName());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getFileOfMissingFile() {
+        FileManager fileManager = new FileManager();
+        Path path = Paths.get("src/test/resources/DoesNotExist.java");
+
+        assertThrows(IOException.class, () -> fileManager.getFile(path));
+        // failures are not remembered
+        assertThrows(IOException.class, () -> fileManager.getFile(path));
+    }
+
+    @Test
+    void takeSource() throws Exception {
+        FileManager fileManager = new FileManager();
+        fileManager.setEncoding("UTF-8");
+        Path path = Paths.get("src/test/resources/jxr135/org/apache/maven/jxr/pacman/ClassWithNested.java");
+
+        fileManager.getFile(path);
+        // the source cache is disabled by default
+        assertNull(fileManager.takeSource(path, "UTF-8"));
+
+        fileManager = new FileManager();
+        fileManager.setEncoding("UTF-8");
+        fileManager.setSourceCacheSize(FileManager.DEFAULT_SOURCE_CACHE_SIZE);
+
+        fileManager.getFile(path);
+        JavaSource source = fileManager.takeSource(path, "UTF-8");
+        assertNotNull(source);
+        assertEquals(
+                new String(Files.readAllBytes(path), StandardCharsets.UTF_8),
+                new String(source.getText(), 0, source.length()));
+        // a source is taken only once
+        assertNull(fileManager.takeSource(path, "UTF-8"));
+    }
+}
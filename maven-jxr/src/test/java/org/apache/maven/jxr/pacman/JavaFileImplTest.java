@@ -19,10 +19,22 @@
 package org.apache.maven.jxr.pacman;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
+import org.apache.maven.jxr.util.JavaSource;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -61,6 +73,15 @@ class JavaFileImplTest {
         assertEquals("[ImportType[name=java.lang.*]]", javaFile.getImportTypes().toString());
     }
 
+    @Test
+    void supplementaryCharacter(@TempDir Path tmp) throws IOException {
+        Path file = tmp.resolve("A.java");
+        Files.write(file, "// smile \ud83d\ude00 ok\nclass A {}\n".getBytes(StandardCharsets.UTF_8));
+        JavaFileImpl javaFile = new JavaFileImpl(file, "UTF-8");
+        assertEquals(1, javaFile.getClassTypes().size());
+        assertEquals("A", javaFile.getClassTypes().get(0).getName());
+    }
+
     @Test
     void jxr175Java14Record() throws IOException {
         JavaFileImpl javaFile = new JavaFileImpl(
@@ -68,4 +89,50 @@ class JavaFileImplTest {
         assertEquals(1, javaFile.getClassTypes().size());
         assertEquals("Java14Record", javaFile.getClassTypes().get(0).getName());
     }
+
+    @Test
+    void lexedSource() throws IOException {
+        for (String name : new String[] {
+            "src/test/resources/jxr135/org/apache/maven/jxr/pacman/ClassWithNested.java",
+            "src/test/resources/jxr170/org/apache/maven/jxr/pacman/ClassWithMultiLineString.java",
+            "src/test/resources/jxr175/org/apache/maven/jxr/pacman/Java14Record.java",
+            // sources whose nested classes a walk of the lexed tokens found differently
+            "src/main/java/org/apache/maven/jxr/DirectoryIndexer.java",
+            "src/main/java/org/apache/maven/jxr/pacman/PackageManager.java"
+        }) {
+            Path path = Paths.get(name);
+            JavaFileImpl parsed = new JavaFileImpl(path, "UTF-8");
+            JavaSource source;
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                source = JavaSource.read(reader);
+            }
+            JavaFileImpl lexed = new JavaFileImpl(path, "UTF-8", source);
+
+            assertEquals(parsed.getPackageType().getName(), lexed.getPackageType().getName());
+            assertEquals(
+                    new TreeSet<>(names(parsed.getImportTypes())), new TreeSet<>(names(lexed.getImportTypes())));
+            assertEquals(names(parsed.getClassTypes()), names(lexed.getClassTypes()));
+        }
+    }
+
+    @Test
+    void lexedSourceWithOperators() throws IOException {
+        JavaSource source = JavaSource.read(new StringReader("package p;\n"
+                + "import java.util.*;\n"
+                + "class A {\n"
+                + "    int square(int i) { return i * i; }\n"
+                + "    class B {}\n"
+                + "}\n"));
+        JavaFileImpl javaFile = new JavaFileImpl(Paths.get("A.java"), "UTF-8", source);
+
+        assertEquals("p", javaFile.getPackageType().getName());
+        assertEquals(
+                new TreeSet<>(Arrays.asList("java.lang.*", "java.util.*")),
+                new TreeSet<>(names(javaFile.getImportTypes())));
+        assertEquals(Arrays.asList("A", "A.B"), names(javaFile.getClassTypes()));
+    }
+
+    private static List<String> names(Collection<? extends BaseType> types) {
+        return types.stream().map(BaseType::getName).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.pacman;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackageManagerTest {
+    @Test
+    void parseWithSeveralThreads() {
+        PackageManager serial = new PackageManager(new FileManager());
+        serial.process(Paths.get("src/test/java"));
+        serial.process(Paths.get("src/test/resources"));
+
+        PackageManager concurrent = new PackageManager(new FileManager());
+        concurrent.setThreadCount(4);
+        concurrent.process(Paths.get("src/test/java"));
+        concurrent.process(Paths.get("src/test/resources"));
+
+        Map<String, String> model = describe(serial);
+        assertTrue(model.containsKey("org.apache.maven.jxr.pacman"));
+        assertEquals(model, describe(concurrent));
+    }
+
+    @Test
+    void processScannedFiles() {
+        PackageManager packageManager = new PackageManager(new FileManager());
+        packageManager.process(Paths.get("src/test/resources/jxr68"), new String[] {"pkga/BClass.java"});
+
+        assertEquals(1, packageManager.getPackageTypes().size());
+        assertNotNull(packageManager.getPackageType("pkga").getClassType("BClass"));
+        assertNull(packageManager.getPackageType("pkga").getClassType("SomeClass"));
+
+        // the directory is known now, it isn't scanned again
+        packageManager.process(Paths.get("src/test/resources/jxr68"));
+        assertNull(packageManager.getPackageType("pkgb"));
+    }
+
+    @Test
+    void symbolIndex(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path index = tmp.resolve("symbols");
+        Path aClass =
+                write(src.resolve("pkga/AClass.java"), "package pkga;", "import pkgb.*;", "public class AClass {}");
+        write(src.resolve("pkgb/BClass.java"), "package pkgb;", "public class BClass {}");
+
+        FileManager fileManager = new FileManager();
+        PackageManager packageManager = newPackageManager(fileManager, index);
+        packageManager.process(src);
+        packageManager.saveSymbolIndex();
+        assertTrue(fileManager.getFile(aClass) instanceof JavaFileImpl);
+
+        // the unchanged files are not parsed again
+        FileManager indexedFileManager = new FileManager();
+        PackageManager indexed = newPackageManager(indexedFileManager, index);
+        indexed.process(src);
+        indexed.saveSymbolIndex();
+        JavaFile indexedFile = indexedFileManager.getFile(aClass);
+        assertFalse(indexedFile instanceof JavaFileImpl);
+        assertEquals(describe(packageManager), describe(indexed));
+        assertEquals(imports(fileManager.getFile(aClass)), imports(indexedFile));
+        assertEquals("AClass", indexedFile.getClassType().getFilename());
+
+        // a changed file is parsed again
+        write(aClass, "package pkga;", "public class AClass {}", "class AClassHelper {}");
+        FileManager changedFileManager = new FileManager();
+        PackageManager changed = newPackageManager(changedFileManager, index);
+        changed.process(src);
+        assertTrue(changedFileManager.getFile(aClass) instanceof JavaFileImpl);
+        assertNotNull(changed.getPackageType("pkga").getClassType("AClassHelper"));
+
+        // an index that can't be read, or of another configuration, is ignored
+        Files.write(index, new byte[] {'J', 'X', 'R'});
+        FileManager corruptFileManager = new FileManager();
+        PackageManager corrupt = newPackageManager(corruptFileManager, index);
+        corrupt.process(src);
+        assertEquals(describe(changed), describe(corrupt));
+        corrupt.saveSymbolIndex();
+
+        FileManager otherFileManager = new FileManager();
+        otherFileManager.setEncoding("UTF-16");
+        PackageManager other = newPackageManager(otherFileManager, index);
+        other.process(src);
+        assertTrue(otherFileManager.getFile(aClass) instanceof JavaFileImpl);
+    }
+
+    private static PackageManager newPackageManager(FileManager fileManager, Path index) {
+        PackageManager packageManager = new PackageManager(fileManager);
+        packageManager.setSymbolIndex(index);
+        return packageManager;
+    }
+
+    private static Path write(Path file, String... lines) throws Exception {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, Arrays.asList(lines), StandardCharsets.ISO_8859_1);
+    }
+
+    private static Set<String> imports(JavaFile javaFile) {
+        Set<String> imports = new TreeSet<>();
+        for (ImportType importType : javaFile.getImportTypes()) {
+            imports.add(importType.getName());
+        }
+        return imports;
+    }
+
+    /**
+     * Describes every package with its classes and the files they were found in.
+     */
+    private static Map<String, String> describe(PackageManager packageManager) {
+        Map<String, String> model = new TreeMap<>();
+        for (PackageType packageType : packageManager.getPackageTypes()) {
+            Map<String, String> classes = new TreeMap<>();
+            for (ClassType classType : packageType.getClassTypes()) {
+                classes.put(classType.getName(), classType.getFilename());
+            }
+            model.put(packageType.getName(), classes.toString());
+        }
+        return model;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JavaKeywordsTest {
+    @Test
+    void isKeyword() {
+        String line = "public synchronized void run() throws X { finally_ do if intx }";
+        assertTrue(JavaKeywords.isKeyword(line, 0, 6));
+        assertTrue(JavaKeywords.isKeyword(line, 7, 19));
+        assertTrue(JavaKeywords.isKeyword(line.toCharArray(), 20, 24));
+        assertFalse(JavaKeywords.isKeyword(line, 25, 28));
+        assertTrue(JavaKeywords.isKeyword(line, 31, 37));
+        assertTrue(JavaKeywords.isKeyword(line, 31, 36));
+        assertTrue(JavaKeywords.isKeyword(line, 42, 49));
+        assertFalse(JavaKeywords.isKeyword(line, 42, 50));
+        assertTrue(JavaKeywords.isKeyword(line.toCharArray(), 51, 53));
+        assertTrue(JavaKeywords.isKeyword(line, 54, 56));
+        assertFalse(JavaKeywords.isKeyword(line, 57, 61));
+        assertFalse(JavaKeywords.isKeyword(line, 0, 1));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NameTableTest {
+    @Test
+    void getFromRange() {
+        NameTable<Integer> table = new NameTable<>();
+        for (int i = 0; i < 100; i++) {
+            table.put("Class" + i, i);
+        }
+        table.put("Class7", 700);
+
+        assertEquals(100, table.size());
+        assertEquals(42, table.get("new Class42()", 4, 11));
+        assertEquals(700, table.get("Class7"));
+        assertNull(table.get("new Class4()", 4, 11));
+        assertNull(table.get("Class100"));
+    }
+
+    @Test
+    void clear() {
+        NameTable<Integer> table = new NameTable<>();
+        for (int i = 0; i < 100; i++) {
+            table.put("Class" + i, i);
+        }
+        table.clear();
+
+        assertEquals(0, table.size());
+        assertNull(table.get("Class42"));
+        table.put("Class42", 42);
+        assertEquals(42, table.get("Class42"));
+    }
+}
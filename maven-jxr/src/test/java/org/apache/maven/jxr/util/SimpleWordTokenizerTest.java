@@ -18,11 +18,16 @@
  */
 package org.apache.maven.jxr.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SimpleWordTokenizerTest {
     @Test
@@ -116,4 +121,23 @@ class SimpleWordTokenizerTest {
 
         assertEquals(26, entries.get(0).getIndex());
     }
+
+    @Test
+    void wordHandler() {
+        StringBuilder line = new StringBuilder("  new App(app.name)[0] {");
+        List<String> words = new ArrayList<>();
+        SimpleWordTokenizer.tokenize(line, (text, start, end) -> {
+            assertSame(line, text);
+            words.add(start + ":" + text.subSequence(start, end));
+        });
+
+        assertEquals(Arrays.asList("2:new", "6:App", "10:app.name", "20:0]"), words);
+    }
+
+    @Test
+    void regionMatches() {
+        assertTrue(SimpleWordTokenizer.regionMatches("new App()", 4, 7, "App"));
+        assertFalse(SimpleWordTokenizer.regionMatches("new App()", 4, 8, "App"));
+        assertFalse(SimpleWordTokenizer.regionMatches("new Apq()", 4, 7, "App"));
+    }
 }
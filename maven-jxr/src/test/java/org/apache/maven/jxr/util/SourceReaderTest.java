@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SourceReaderTest {
+    @TempDir
+    Path tmp;
+
+    /**
+     * Test that files are read as {@link InputStreamReader} reads them, also when characters are split between the
+     * chunks read from the file.
+     */
+    @Test
+    void readsLikeInputStreamReader() throws IOException {
+        String[] words = {"class", " ", "Foo", "{", "//", "caf\u00e9", "\u20ac", "\ud83d\ude00", "}", "\n"};
+        StringBuilder text = new StringBuilder();
+        Random random = new Random(1);
+        while (text.length() < 200_000) {
+            text.append(words[random.nextInt(words.length)]);
+        }
+        String source = text.toString();
+
+        for (String encoding : new String[] {"UTF-8", "ISO-8859-1", "US-ASCII", "UTF-16", "windows-1252"}) {
+            Path file = tmp.resolve(encoding + ".java");
+            Files.write(file, source.getBytes(encoding));
+            assertEquals(readWithInputStreamReader(file, encoding), read(file, encoding, 8192), encoding);
+            assertEquals(readWithInputStreamReader(file, encoding), read(file, encoding, 7), encoding);
+        }
+
+        Path malformed = tmp.resolve("Malformed.java");
+        Files.write(malformed, new byte[] {'a', (byte) 0xC3, 'b', (byte) 0xE2, (byte) 0x82});
+        assertEquals(readWithInputStreamReader(malformed, "UTF-8"), read(malformed, "UTF-8", 8192));
+
+        Path empty = tmp.resolve("Empty.java");
+        Files.write(empty, new byte[0]);
+        assertEquals("", read(empty, "UTF-8", 8192));
+        assertEquals("", read(empty, "ISO-8859-1", 8192));
+    }
+
+    /**
+     * Test that a surrogate pair is not lost when a single character is read at a time, as
+     * {@link java.io.StreamTokenizer} does.
+     */
+    @Test
+    void supplementaryCharacterReadOneAtATime() throws IOException {
+        String source = "// smile \ud83d\ude00 ok\nclass A {}\n";
+        for (String encoding : new String[] {"UTF-8", "UTF-16"}) {
+            Path file = tmp.resolve(encoding + ".java");
+            Files.write(file, source.getBytes(encoding));
+            assertEquals(source, read(file, encoding, 1), encoding);
+        }
+    }
+
+    @Test
+    void defaultCharset() throws IOException {
+        Path file = tmp.resolve("Default.java");
+        byte[] content = "class Caf\u00e9 {}".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, content);
+        assertEquals(new String(content, Charset.defaultCharset()), read(file, null, 8192));
+    }
+
+    @Test
+    void unsupportedEncoding() throws IOException {
+        assertThrows(UnsupportedEncodingException.class, () -> SourceReader.open(tmp, "no-such-encoding"));
+        assertEquals(StandardCharsets.UTF_8, SourceReader.charset("utf8"));
+    }
+
+    private static String read(Path file, String encoding, int chunk) throws IOException {
+        try (Reader reader = SourceReader.open(file, encoding)) {
+            return readAll(reader, chunk);
+        }
+    }
+
+    private static String readWithInputStreamReader(Path file, String encoding) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), encoding)) {
+            return readAll(reader, 8192);
+        }
+    }
+
+    private static String readAll(Reader reader, int chunk) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buf = new char[chunk];
+        int read;
+        while ((read = reader.read(buf)) >= 0) {
+            text.append(buf, 0, read);
+        }
+        return text.toString();
+    }
+}
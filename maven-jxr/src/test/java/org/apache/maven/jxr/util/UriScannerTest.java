@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.jxr.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UriScannerTest {
+    @Test
+    void uriEnd() {
+        String line = "(see https://maven.apache.org/jxr) or mailto:dev@maven.apache.org, http:/ http://";
+        assertEquals(0, UriScanner.uriEnd(line, 0, line.length()));
+        assertEquals(34, UriScanner.uriEnd(line, 5, line.length()));
+        assertEquals(5, UriScanner.uriEnd(line, 5, 11));
+        assertEquals(66, UriScanner.uriEnd(line.toCharArray(), 38, line.length()));
+        assertEquals(67, UriScanner.uriEnd(line, 67, line.length()));
+        assertEquals(81, UriScanner.uriEnd(line, 74, line.length()));
+    }
+
+    @Test
+    void escapedUriEnd() {
+        String line = "&lt;a href=&quot;http://a.org&quot;&gt;http://a.org/?x=1&amp;y=2&lt;/a&gt;. mailto:a@b.org&#92;";
+        assertEquals(29, UriScanner.escapedUriEnd(line, 17, line.length()));
+        assertEquals(64, UriScanner.escapedUriEnd(line, 39, line.length()));
+        assertEquals(90, UriScanner.escapedUriEnd(line, 76, line.length()));
+        assertEquals(0, UriScanner.escapedUriEnd(line, 0, line.length()));
+    }
+
+    @Test
+    void isUriCharacter() {
+        for (char c : "azAZ09?+%&:/.@_;=$,-!~*'()\u00e9".toCharArray()) {
+            assertTrue(UriScanner.isUriCharacter(c), String.valueOf(c));
+        }
+        for (char c : " \t\"<>[]{}\\^`|#\u00a0\u2028".toCharArray()) {
+            assertFalse(UriScanner.isUriCharacter(c), String.valueOf(c));
+        }
+    }
+}